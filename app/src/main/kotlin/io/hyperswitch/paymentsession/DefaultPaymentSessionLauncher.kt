@@ -26,7 +26,7 @@ class DefaultPaymentSessionLauncher(
                 hsConfig.customConfig?.overrideEndpoints?.customLoggingEndpoint
                     ?.takeIf { it.isNotEmpty() }
                     ?: getLoggingUrl(publishableKey)
-            HyperLogManager.initialise(publishableKey, loggingEndPoint)
+            HyperLogManager.initialise(publishableKey, loggingEndPoint, context = activity)
             HyperLogManager.sendLogsFromFile(LogFileManager(activity))
         }
         paymentSessionReactLauncher.initializeReactNativeInstance()
@@ -1,16 +1,21 @@
 package io.hyperswitch.sdk
 
 import android.app.Activity
+import io.hyperswitch.logs.LogUtils.getLoggingUrl
 import io.hyperswitch.model.HyperswitchBaseConfiguration
 import io.hyperswitch.model.HyperswitchConfiguration
 import io.hyperswitch.model.HyperswitchPlatformConfiguration
+import io.hyperswitch.networking.HyperNetworking
+import io.hyperswitch.webview.utils.HSWebViewPool
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.SupervisorJob
 import kotlinx.coroutines.async
 import kotlinx.coroutines.cancel
+import java.io.File
 
 object Hyperswitch {
+    private const val HTTP_CACHE_DIRECTORY_NAME = "hs_http_cache"
     private var currentScope: CoroutineScope? = null
 
     fun init(
@@ -36,8 +41,24 @@ object Hyperswitch {
         currentScope = scope
         val initDeferred = scope.async {
             // TODO: async SDK initialisation (e.g. validate publishable key, fetch remote config)
+            HyperNetworking.enableCache(File(activity.applicationContext.cacheDir, HTTP_CACHE_DIRECTORY_NAME))
+            config?.let { HyperNetworking.warmup(warmupEndpoints(it)) }
+            HSWebViewPool.prewarm(activity)
             config
         }
         return HyperswitchInstance(activity, initDeferred = initDeferred)
     }
+
+    /**
+     * Endpoints the first log upload and SDK calls will hit, pre-connected during [init].
+     */
+    private fun warmupEndpoints(config: HyperswitchBaseConfiguration): List<String> {
+        val endpoints = config.customConfig?.overrideEndpoints
+        val loggingEndpoint = endpoints?.customLoggingEndpoint?.takeIf { it.isNotEmpty() }
+            ?: config.publishableKey?.let { getLoggingUrl(it) }
+        return listOfNotNull(
+            loggingEndpoint,
+            endpoints?.customBackendEndpoint?.takeIf { it.isNotEmpty() }
+        )
+    }
 }
\ No newline at end of file
@@ -27,8 +27,9 @@ class HyperOtaLogger(private val sdkVersion: String) : TrackerCallback() {
         key: String,
         value: Any
     ) {
-        if (!value.toString().contains("index split is empty") && !value.toString()
-                .contains("End of input at character") && !value.toString()
+        val valueString = value.toString()
+        if (!valueString.contains("index split is empty") && !valueString
+                .contains("End of input at character") && !valueString
                 .contains("some files during clean up")
         ) {
             val eventData = mapOf(
@@ -39,13 +40,10 @@ class HyperOtaLogger(private val sdkVersion: String) : TrackerCallback() {
                 "key" to key
             )
 
-            try {
-                val jsonData = JSONObject(eventData).toString()
-                val log = HSLog.LogBuilder().logType(level).category(LogCategory.OTA_LIFE_CYCLE)
-                    .eventName(eventName).value(jsonData).version(this.sdkVersion)
-                HyperLogManager.addLog(log.build())
-            } catch (e: JSONException) {
-            }
+            val log = HSLog.LogBuilder().logType(level).category(LogCategory.OTA_LIFE_CYCLE)
+                .eventName(eventName).valueSupplier { JSONObject(eventData).toString() }
+                .version(this.sdkVersion)
+            HyperLogManager.addLog(log)
         }
     }
 
@@ -137,22 +135,19 @@ class HyperOtaLogger(private val sdkVersion: String) : TrackerCallback() {
         category: String, subCategory: String, label: String, description: String, e: Throwable
     ) {
         if (category == "lifecycle") {
-            val eventData = mapOf(
-                "label" to label,
-                "value" to (e.message ?: e.stackTraceToString()),
-                "category" to category,
-                "subcategory" to subCategory
-            )
-
-            try {
-                val jsonData = JSONObject(eventData).toString()
-                val log =
-                    HSLog.LogBuilder().logType("error").category(LogCategory.OTA_LIFE_CYCLE)
-                        .eventName(EventName.HYPER_OTA_EVENT).value(jsonData)
+            val log =
+                HSLog.LogBuilder().logType("error").category(LogCategory.OTA_LIFE_CYCLE)
+                    .eventName(EventName.HYPER_OTA_EVENT).valueSupplier {
+                        val eventData = mapOf(
+                            "label" to label,
+                            "value" to (e.message ?: e.stackTraceToString()),
+                            "category" to category,
+                            "subcategory" to subCategory
+                        )
+                        JSONObject(eventData).toString()
+                    }
 
-                HyperLogManager.addLog(log.build())
-            } catch (e: JSONException) {
-            }
+            HyperLogManager.addLog(log)
         }
 //        Log.i("ota-3" , "category : " + category + "\n subCategory : " + subCategory +
 //                "\n level : " + "error" + "\n label : " + label + "\n description : " + description + "\n value : " + e.toString())
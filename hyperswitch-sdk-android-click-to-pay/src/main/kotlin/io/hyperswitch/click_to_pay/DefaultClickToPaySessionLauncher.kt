@@ -8,13 +8,13 @@ import io.hyperswitch.click_to_pay.webview.DCTPWebview
 import io.hyperswitch.click_to_pay.webview.UCTPWebview
 import io.hyperswitch.logs.CrashHandler
 import io.hyperswitch.logs.EventName
-import io.hyperswitch.logs.HSLog
 import io.hyperswitch.logs.HyperLogManager
 import io.hyperswitch.logs.LogCategory
 import io.hyperswitch.logs.LogFileManager
 import io.hyperswitch.logs.LogType
 import io.hyperswitch.logs.LogUtils.getLoggingUrl
 import io.hyperswitch.logs.LogUtils.getOrCreateUniqueKey
+import io.hyperswitch.webview.utils.HSWebViewPool
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.withContext
 import java.util.UUID
@@ -52,16 +52,28 @@ class DefaultClickToPaySessionLauncher(
         value: String,
         category: LogCategory = LogCategory.USER_EVENT
     ) {
-        val log =
-            HSLog.LogBuilder().logType(type).category(category).eventName(eventName).value(value)
-                .version(BuildConfig.VERSION_NAME).authenticationId(authenticationId ?: "")
-                .sessionId(sessionId)
-        HyperLogManager.addLog(log.build())
+        logger(type, eventName, category) { value }
+    }
+
+    /**
+     * Logs an event whose value is only built if the log passes [HyperLogManager]'s filters.
+     */
+    private fun logger(
+        type: LogType,
+        eventName: EventName,
+        category: LogCategory = LogCategory.USER_EVENT,
+        value: () -> String
+    ) {
+        HyperLogManager.log(type, category, eventName) {
+            valueSupplier(value).version(BuildConfig.VERSION_NAME)
+                .authenticationId(authenticationId ?: "").sessionId(sessionId)
+        }
     }
 
     init {
         uctpWebview.setLogger(::logger)
         dctpWebview.setLogger(::logger)
+        HSWebViewPool.prewarm(activity)
     }
 
     @Throws(ClickToPayException::class)
@@ -75,7 +87,7 @@ class DefaultClickToPaySessionLauncher(
         Thread.setDefaultUncaughtExceptionHandler(
             CrashHandler(activity.application, BuildConfig.VERSION_NAME, sessionId = sessionId)
         )
-        HyperLogManager.initialise(publishableKey, loggingEndPoint)
+        HyperLogManager.initialise(publishableKey, loggingEndPoint, context = activity)
         HyperLogManager.sendLogsFromFile(LogFileManager(activity))
         loadUrl()
     }
@@ -119,12 +131,9 @@ class DefaultClickToPaySessionLauncher(
             )
         }
 
-        logger(
-            LogType.DEBUG,
-            EventName.INIT_CLICK_TO_PAY_SESSION_RETURNED,
-            correlationIds.joinToString(", "),
-            LogCategory.USER_EVENT
-        )
+        logger(LogType.DEBUG, EventName.INIT_CLICK_TO_PAY_SESSION_RETURNED) {
+            correlationIds.joinToString(", ")
+        }
         captureCorrelationIds.set(false)
         correlationIds.clear()
     }
@@ -136,31 +145,25 @@ class DefaultClickToPaySessionLauncher(
         merchantId: String,
         activity: Activity
     ) {
-        logger(
-            LogType.DEBUG,
-            EventName.GET_ACTIVE_CLICK_TO_PAY_SESSION_INIT,
+        logger(LogType.DEBUG, EventName.GET_ACTIVE_CLICK_TO_PAY_SESSION_INIT) {
             "Switching from ${this.activity.javaClass.simpleName} to ${activity.javaClass.simpleName}"
-        )
+        }
         this.authenticationId = authenticationId
         try {
             if (this.activity !== activity) {
                 uctpWebview.moveToActivity(activity)
                 dctpWebview.moveToActivity(activity)
                 uctpWebview.setLogger { type, eventName, value, category ->
-                    val log =
-                        HSLog.LogBuilder().logType(type).category(category).eventName(eventName)
-                            .value(value)
-                            .version(BuildConfig.VERSION_NAME).authenticationId(authenticationId)
-                            .sessionId(sessionId)
-                    HyperLogManager.addLog(log.build())
+                    HyperLogManager.log(type, category, eventName) {
+                        value(value).version(BuildConfig.VERSION_NAME)
+                            .authenticationId(authenticationId).sessionId(sessionId)
+                    }
                 }
                 dctpWebview.setLogger { type, eventName, value, category ->
-                    val log =
-                        HSLog.LogBuilder().logType(type).category(category).eventName(eventName)
-                            .value(value)
-                            .version(BuildConfig.VERSION_NAME).authenticationId(authenticationId)
-                            .sessionId(sessionId)
-                    HyperLogManager.addLog(log.build())
+                    HyperLogManager.log(type, category, eventName) {
+                        value(value).version(BuildConfig.VERSION_NAME)
+                            .authenticationId(authenticationId).sessionId(sessionId)
+                    }
                 }
                 this.activity = activity
             }
@@ -254,9 +257,7 @@ class DefaultClickToPaySessionLauncher(
                 )
             }
             val recognized = data.optBoolean("recognized", false)
-            logger(
-                LogType.DEBUG, EventName.SIGN_OUT_RETURNED, "recognized: $recognized"
-            )
+            logger(LogType.DEBUG, EventName.SIGN_OUT_RETURNED) { "recognized: $recognized" }
             SignOutResponse(
                 recognized = recognized
             )
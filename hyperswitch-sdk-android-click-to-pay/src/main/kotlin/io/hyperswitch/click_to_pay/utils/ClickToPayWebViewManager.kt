@@ -8,11 +8,13 @@ import androidx.webkit.WebViewCompat
 import io.hyperswitch.click_to_pay.models.ClickToPayErrorType
 import io.hyperswitch.click_to_pay.models.ClickToPayException
 import io.hyperswitch.logs.EventName
+import io.hyperswitch.logs.HyperMetrics
 import io.hyperswitch.logs.LogCategory
 import io.hyperswitch.logs.LogType
 import io.hyperswitch.webview.utils.Arguments
 import io.hyperswitch.webview.utils.Callback
 import io.hyperswitch.webview.utils.HSWebViewManagerImpl
+import io.hyperswitch.webview.utils.HSWebViewTimingListener
 import io.hyperswitch.webview.utils.HSWebViewWrapper
 import kotlinx.coroutines.CancellableContinuation
 import kotlinx.coroutines.Dispatchers
@@ -24,6 +26,7 @@ import kotlinx.coroutines.withContext
 import org.json.JSONObject
 import java.util.UUID
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicBoolean
 import kotlin.collections.component1
 import kotlin.collections.component2
@@ -57,6 +60,7 @@ class ClickToPayWebViewManager(
 
     private fun initializeWebViewInternal() {
         val onMessage = Callback { args ->
+            HyperMetrics.counter(HyperMetrics.BRIDGE_MESSAGES).increment()
             (args["data"] as? String)?.let { jsonString ->
                 val requestId = JSONObject(jsonString).optString("requestId", "")
                 if (requestId.isNotEmpty()) {
@@ -65,7 +69,11 @@ class ClickToPayWebViewManager(
             }
         }
 
-        hSWebViewManagerImpl = HSWebViewManagerImpl(activity, onMessage)
+        val timingListener = HSWebViewTimingListener { durationNanos ->
+            HyperMetrics.histogram(HyperMetrics.WEBVIEW_CREATION_MS)
+                .record(TimeUnit.NANOSECONDS.toMillis(durationNanos))
+        }
+        hSWebViewManagerImpl = HSWebViewManagerImpl(activity, onMessage, timingListener = timingListener)
         hSWebViewWrapper = hSWebViewManagerImpl.createViewInstance()
 
         hSWebViewManagerImpl.setJavaScriptEnabled(hSWebViewWrapper, true)
@@ -109,6 +117,12 @@ class ClickToPayWebViewManager(
      * Helper function to execute JavaScript on the Main thread and return the response.
      */
     suspend fun evaluateJavascriptOnMainThread(requestId: String, jsCode: String): String {
+        return HyperMetrics.histogram(HyperMetrics.JS_EVALUATION_MS).time {
+            evaluateJavascript(requestId, jsCode)
+        }
+    }
+
+    private suspend fun evaluateJavascript(requestId: String, jsCode: String): String {
         return withContext(Dispatchers.Main) {
             if (isDestroyed.get()) {
                 throw ClickToPayException(
@@ -444,7 +458,7 @@ class ClickToPayWebViewManager(
                         if (parent is ViewGroup) {
                             parent.removeView(hSWebViewWrapper)
                         }
-                        hSWebViewWrapper.webView.destroy()
+                        hSWebViewManagerImpl.onDropViewInstance(hSWebViewWrapper)
                     }
                 }
                 isWebViewInitialized.set(false)
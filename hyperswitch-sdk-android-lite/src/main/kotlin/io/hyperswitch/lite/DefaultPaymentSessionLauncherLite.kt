@@ -11,6 +11,7 @@ import io.hyperswitch.paymentsession.PresentationInterface
 import io.hyperswitch.paymentsession.SavedPaymentMethodsConfiguration
 import io.hyperswitch.paymentsheet.PaymentSheet
 import io.hyperswitch.paymentsheet.PaymentResult
+import io.hyperswitch.webview.utils.HSWebViewPool
 
 open class DefaultPaymentSessionLauncherLite(
     activity: Activity,
@@ -18,6 +19,10 @@ open class DefaultPaymentSessionLauncherLite(
     private val webViewUtils: PresentationInterface = WebViewUtils(activity)
 ) : BasePaymentSessionLauncher(activity, hsConfig) {
 
+    init {
+        HSWebViewPool.prewarm(activity)
+    }
+
     override fun presentPaymentSheet(
         configuration: PaymentSheet.Configuration?,
         subscribe: (PaymentEventSubscriptionBuilder.() -> Unit)?,
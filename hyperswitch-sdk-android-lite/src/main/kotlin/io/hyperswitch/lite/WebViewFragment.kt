@@ -30,6 +30,7 @@ open class WebViewFragment : Fragment() {
 //    private lateinit var webViewContainer: FrameLayout
 //    private lateinit var mainWebView: WebView
 
+    private val TAG = "WebViewFragment"
     private lateinit var hSWebViewManagerImpl: HSWebViewManagerImpl
     private lateinit var hSWebViewWrapper: HSWebViewWrapper
     private val webViews = mutableListOf<WebView>()
@@ -53,6 +54,7 @@ open class WebViewFragment : Fragment() {
 
         hSWebViewManagerImpl.setJavaScriptEnabled(hSWebViewWrapper, true)
         hSWebViewManagerImpl.setMessagingEnabled(hSWebViewWrapper, true)
+        hSWebViewManagerImpl.setMessageBatchingEnabled(hSWebViewWrapper, true)
         hSWebViewManagerImpl.setScalesPageToFit(hSWebViewWrapper, true)
 
         loadUrl()
@@ -154,7 +156,9 @@ open class WebViewFragment : Fragment() {
 
     val onMessage = object: Callback {
         override fun invoke(args: Map<String, Any?>) {
-            println(args)
+            if (BuildConfig.DEBUG && Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "onMessage: $args")
+            }
             (args["data"] as? String)?.let {
                 val jsonObject = JSONObject(it)
 
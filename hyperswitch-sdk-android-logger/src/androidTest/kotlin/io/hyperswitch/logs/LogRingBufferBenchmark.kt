@@ -0,0 +1,124 @@
+package io.hyperswitch.logs
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.After
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.concurrent.thread
+
+/**
+ * Cost of buffering one log in [LogRingBuffer], compared with the list guarded by a single
+ * lock that it replaced, alone and while other producers log into the same buffer.
+ *
+ * Run with `./gradlew :hyperswitch-sdk-android-logger:connectedAndroidTest
+ * -Phyperswitch.benchmark=true`, which builds the tests against the release build type.
+ */
+@RunWith(AndroidJUnit4::class)
+class LogRingBufferBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val log = benchmarkLog()
+    private val running = AtomicBoolean(true)
+    private val producers = mutableListOf<Thread>()
+
+    @After
+    fun tearDown() {
+        running.set(false)
+        producers.forEach { it.join() }
+    }
+
+    @Test
+    fun ringBufferOffer() {
+        val buffer = LogRingBuffer(CAPACITY)
+        measureOffers({ buffer.offer(it) }) { buffer.drain() }
+    }
+
+    @Test
+    fun lockedListOffer() {
+        val list = LockedList()
+        measureOffers({ list.add(it) }) { list.drain() }
+    }
+
+    @Test
+    fun ringBufferOfferWithContendingProducers() {
+        val buffer = LogRingBuffer(CAPACITY)
+        startProducers { buffer.offer(it) }
+        measureOffers({ buffer.offer(it) }) { buffer.drain() }
+    }
+
+    @Test
+    fun lockedListOfferWithContendingProducers() {
+        val list = LockedList()
+        startProducers { list.add(it) }
+        measureOffers({ list.add(it) }) { list.drain() }
+    }
+
+    /**
+     * Measures [offer] on the benchmark thread, draining untimed whenever the buffer fills up.
+     */
+    private fun measureOffers(offer: (HSLog) -> Unit, drain: () -> Unit) {
+        var offered = 0
+        benchmarkRule.measureRepeated {
+            offer(log)
+            if (++offered == CAPACITY) {
+                offered = 0
+                runWithTimingDisabled { drain() }
+            }
+        }
+    }
+
+    private fun startProducers(offer: (HSLog) -> Unit) {
+        repeat(CONTENDING_PRODUCERS) {
+            producers.add(thread {
+                while (running.get()) offer(log)
+            })
+        }
+    }
+
+    /**
+     * Bounded like the ring buffer, so contending producers cannot grow it without limit.
+     */
+    private class LockedList {
+        private val logs = ArrayDeque<HSLog>(CAPACITY)
+
+        fun add(log: HSLog) {
+            synchronized(this) {
+                if (logs.size == CAPACITY) logs.removeFirst()
+                logs.addLast(log)
+            }
+        }
+
+        fun drain() {
+            synchronized(this) { logs.clear() }
+        }
+    }
+
+    private companion object {
+        const val CAPACITY = 512
+        const val CONTENDING_PRODUCERS = 7
+
+        fun benchmarkLog() = HSLog(
+            timestamp = "1700000000000",
+            logType = LogType.INFO,
+            category = LogCategory.USER_EVENT,
+            version = "1.0.0",
+            codePushVersion = "",
+            clientCoreVersion = "",
+            value = "benchmark",
+            internalMetadata = "",
+            sessionId = "session",
+            authenticationId = "",
+            merchantId = "merchant",
+            paymentId = "",
+            userAgent = "benchmark",
+            eventName = EventName.CHECKOUT_INIT,
+            source = "benchmark"
+        )
+    }
+}
@@ -0,0 +1,85 @@
+package io.hyperswitch.logs
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * Bounded lock-free queue based on per-slot sequence numbers (Vyukov's array queue).
+ *
+ * Any thread may offer and poll; [LogRingBuffer] uses polls from producers only to
+ * evict the oldest entry when the buffer is over its budget.
+ *
+ * @param requestedCapacity Minimum capacity, rounded up to a power of two
+ */
+internal class BoundedLogQueue<T : Any>(requestedCapacity: Int) {
+
+    private val capacity = Integer.highestOneBit((requestedCapacity - 1).coerceAtLeast(1)) shl 1
+    private val mask = capacity - 1
+    private val items = AtomicReferenceArray<T?>(capacity)
+    private val sequences = AtomicLongArray(capacity).apply {
+        for (i in 0 until capacity) set(i, i.toLong())
+    }
+    private val tail = AtomicLong()
+    private val head = AtomicLong()
+
+    fun offer(item: T): Boolean {
+        while (true) {
+            val position = tail.get()
+            val slot = (position and mask.toLong()).toInt()
+            val difference = sequences.get(slot) - position
+            when {
+                difference == 0L -> if (tail.compareAndSet(position, position + 1)) {
+                    items.set(slot, item)
+                    sequences.set(slot, position + 1)
+                    return true
+                }
+                difference < 0L -> return false
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest item.
+     *
+     * An offer publishes its item shortly after claiming its slot, so the oldest slot can be
+     * claimed but still empty while newer items are ready. By default that is reported as
+     * an empty queue; with [waitForPending] the call instead waits for the pending offer.
+     *
+     * @return The oldest item, or `null` if there is none
+     */
+    fun poll(waitForPending: Boolean = false): T? {
+        while (true) {
+            val position = head.get()
+            val slot = (position and mask.toLong()).toInt()
+            val difference = sequences.get(slot) - (position + 1)
+            when {
+                difference == 0L -> if (head.compareAndSet(position, position + 1)) {
+                    val item = items.getAndSet(slot, null)
+                    sequences.set(slot, position + capacity)
+                    return item
+                }
+                difference < 0L -> if (!waitForPending || tail.get() <= position) {
+                    return null
+                } else {
+                    Thread.yield()
+                }
+            }
+        }
+    }
+
+    /**
+     * Best-effort, non-destructive copy of the queued items, oldest first.
+     */
+    fun snapshot(): List<T> {
+        val start = head.get()
+        val end = tail.get()
+        val result = ArrayList<T>((end - start).toInt().coerceIn(0, capacity))
+        for (position in start until end) {
+            val slot = (position and mask.toLong()).toInt()
+            val item = items.get(slot)
+            if (item != null && sequences.get(slot) == position + 1) result.add(item)
+        }
+        return result
+    }
+}
@@ -75,15 +75,16 @@ class CrashHandler(private val context: Context, private val sdkVersion: String,
             )
         )
         try {
-            val jsonData = JSONObject(obj).toString()
+            // Recent events, including ones already uploaded
+            val jsonData = JSONObject(obj).put("breadcrumbs", LogBreadcrumbs.toJson()).toString()
             val log = HSLog.LogBuilder().logType("error").category(LogCategory.USER_EVENT)
                 .eventName(EventName.CRASH_EVENT).value(jsonData).version(sdkVersion).sessionId(sessionId)
             HyperLogManager.addLog(log.build())
         } catch (_: JSONException) {
         }
-        try{
-            fileManager.addLog(HyperLogManager.getAllLogsAsString())
-        }catch (_: Exception){
+        try {
+            fileManager.addLogs(HyperLogManager.getAllLogs())
+        } catch (_: Exception) {
         }
         defaultHandler?.uncaughtException(thread, throwable)
     }
@@ -3,8 +3,11 @@ package io.hyperswitch.logs
 import android.os.Handler
 import android.os.Looper
 
-class Debouncer(private val delayInMillis: Long) {
-    private val handler = Handler(Looper.getMainLooper())
+class Debouncer(
+    @Volatile var delayInMillis: Long,
+    looper: Looper = Looper.getMainLooper()
+) {
+    private val handler = Handler(looper)
     private var runnable: Runnable? = null
 
     fun debounce(action: () -> Unit) {
@@ -17,4 +20,4 @@ class Debouncer(private val delayInMillis: Long) {
         runnable?.let { handler.removeCallbacks(it) }
         runnable = null
     }
-}
\ No newline at end of file
+}
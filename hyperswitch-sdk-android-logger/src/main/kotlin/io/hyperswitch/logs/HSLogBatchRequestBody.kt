@@ -0,0 +1,28 @@
+package io.hyperswitch.logs
+
+import okhttp3.MediaType
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.RequestBody
+import okio.BufferedSink
+
+/**
+ * Request body that serializes a batch of [HSLog] field by field straight into the
+ * request stream, without a JSONObject or String per log.
+ *
+ * @param logs The logs to send, in order
+ */
+class HSLogBatchRequestBody internal constructor(
+    private val logs: List<HSLog>,
+    private val enrichment: LogEnrichment?
+) : RequestBody() {
+
+    constructor(logs: List<HSLog>) : this(logs, null)
+
+    override fun contentType(): MediaType = "application/json".toMediaType()
+
+    override fun writeTo(sink: BufferedSink) {
+        val writer = LogJsonWriter(sink).beginArray()
+        logs.forEach { it.writeJson(writer, enrichment) }
+        writer.endArray()
+    }
+}
@@ -1,41 +1,106 @@
 package io.hyperswitch.logs
 
+import android.content.ComponentCallbacks2
+import android.content.Context
+import android.content.res.Configuration
+import android.net.ConnectivityManager
+import android.net.Network
+import io.hyperswitch.networking.HttpStatusException
 import io.hyperswitch.networking.HyperNetworking
-import org.json.JSONArray
+import io.hyperswitch.networking.RequestPriority
+import java.io.IOException
 
 /**
  * Singleton manager for handling logging operations in Hyperswitch SDK.
  * Manages log batching, debouncing, and sending logs to the logging endpoint.
+ * Flushes and serialization run on the background [LogFlusher] thread.
  */
 object HyperLogManager {
 
     private val lock = Any()
-    private val logsBatch = mutableListOf<HSLog>()
+    private val logsBatch = LogRingBuffer(BUFFER_CAPACITY)
+    @Volatile
     private var publishableKey: String? = null
     private var loggingEndPoint: String? = null
-    private const val DEFAULT_DELAY_IN_MILLIS = 2000L
-    private const val BUCKET_SIZE = 8
+    private const val BUFFER_CAPACITY = 512
+    private const val DEFAULT_COMPRESSION_THRESHOLD_BYTES = 1024
+    private const val IDEMPOTENCY_KEY_HEADER = "Idempotency-Key"
+    private const val ENVELOPE_API_VERSION = "v2"
+    private val ENVELOPE_UNSUPPORTED_STATUS_CODES = setOf(404, 405, 415)
+    private const val DEFAULT_METRICS_INTERVAL_MILLIS = 60_000L
+    private const val DEFAULT_COALESCING_WINDOW_MILLIS = 10_000L
 
-    private var delayInMillis: Long = DEFAULT_DELAY_IN_MILLIS
+    @Volatile
+    private var batchingPolicy = LogBatchingPolicy()
+    @Volatile
     private var hyperOtaVersion: String = ""
-    private val debouncer = Debouncer(DEFAULT_DELAY_IN_MILLIS)
+    private var compression: LogCompression = LogCompression.NONE
+    private var compressionThresholdBytes: Int = DEFAULT_COMPRESSION_THRESHOLD_BYTES
+    private var uploadFormat: LogUploadFormat = LogUploadFormat.ARRAY
+    @Volatile
+    private var minLogLevel: LogType = LogType.DEBUG
+    @Volatile
+    private var enabledCategories: Set<LogCategory>? = null
+    private val flusher =
+        LogFlusher(batchingPolicy.debounceMillis, batchingPolicy.maxLatencyMillis) { sendLogsOverNetwork() }
+    private val sampler = LogSampler()
+    private val coalescer = LogCoalescer(DEFAULT_COALESCING_WINDOW_MILLIS)
+    private val retryScheduler = LogRetryScheduler({ batch, callback -> uploadBatch(batch, callback) })
+    @Volatile
+    private var metricsIntervalMillis = DEFAULT_METRICS_INTERVAL_MILLIS
+    private var metricsReportingStarted = false
+    @Volatile
+    private var networkAvailable = true
+    private val metricsReporter = object : Runnable {
+        override fun run() {
+            reportMetrics()
+            flusher.schedule(this, metricsIntervalMillis)
+        }
+    }
 
     /**
      * Initializes the log manager with required configuration.
      *
      * @param publishableKey The merchant's publishable key for authentication
      * @param loggingEndPoint The endpoint URL where logs will be sent
-     * @param delay The debounce delay in milliseconds before sending logs (default: 2000ms)
+     * @param delay Overrides the debounce delay of [batchingPolicy] in milliseconds when set
+     * @param compression Compression applied to upload bodies (default: none)
+     * @param compressionThresholdBytes Bodies smaller than this are sent uncompressed (default: 1024)
+     * @param context Enables the offline store for undeliverable logs, drained when connectivity returns,
+     * and flushes pending logs when the app moves to the background
+     * @param batchingPolicy Flush triggers and batch limits (default: [LogBatchingPolicy])
+     * @param uploadFormat Wire format of uploads (default: [LogUploadFormat.ARRAY])
      */
     fun initialise(
         publishableKey: String,
         loggingEndPoint: String,
-        delay: Long = DEFAULT_DELAY_IN_MILLIS
+        delay: Long? = null,
+        compression: LogCompression = LogCompression.NONE,
+        compressionThresholdBytes: Int = DEFAULT_COMPRESSION_THRESHOLD_BYTES,
+        context: Context? = null,
+        batchingPolicy: LogBatchingPolicy = LogBatchingPolicy(),
+        uploadFormat: LogUploadFormat = LogUploadFormat.ARRAY
     ) {
+        val policy = delay?.let { batchingPolicy.copy(debounceMillis = it) } ?: batchingPolicy
         synchronized(lock) {
             this.publishableKey = publishableKey
             this.loggingEndPoint = loggingEndPoint
-            this.delayInMillis = delay
+            this.batchingPolicy = policy
+            flusher.debounceMillis = policy.debounceMillis
+            flusher.maxLatencyMillis = policy.maxLatencyMillis
+            this.compression = compression
+            this.compressionThresholdBytes = compressionThresholdBytes
+            this.uploadFormat = uploadFormat
+            if (!metricsReportingStarted) {
+                metricsReportingStarted = true
+                flusher.schedule(metricsReporter, metricsIntervalMillis)
+            }
+        }
+        if (context != null && retryScheduler.offlineStore == null) {
+            val store = LogOfflineStore.get(context)
+            retryScheduler.offlineStore = store
+            registerConnectivityCallback(context)
+            registerComponentCallbacks(context)
         }
     }
     /**
@@ -62,110 +127,371 @@ object HyperLogManager {
         debouncedPushLogs()
     }
 
+    /**
+     * Replaces the sampling and rate limiting rules, typically with ones from remote config.
+     *
+     * @param rules The new rules; see [LogSamplingRules.fromJson] for the remote format
+     */
+    fun setSamplingRules(rules: LogSamplingRules) {
+        sampler.update(rules)
+    }
+
+    /**
+     * Sets how often [HyperMetrics] snapshots are logged once the manager is initialised.
+     *
+     * @param intervalMillis The reporting interval (default: one minute)
+     */
+    fun setMetricsInterval(intervalMillis: Long) {
+        metricsIntervalMillis = intervalMillis
+        synchronized(lock) {
+            if (metricsReportingStarted) flusher.schedule(metricsReporter, intervalMillis)
+        }
+    }
+
+    /**
+     * Sets the window within which identical logs are collapsed into one log carrying
+     * `count`, `first_ts` and `last_ts`.
+     *
+     * @param windowMillis The window (default: 10 seconds); 0 sends every repeat
+     */
+    fun setCoalescingWindow(windowMillis: Long) {
+        coalescer.windowMillis = windowMillis
+    }
+
+    /**
+     * Sets the lowest [LogType] that is recorded; less severe logs are dropped before they are built.
+     * Crash events are recorded whatever their type.
+     *
+     * @param logType The minimum level (default: [LogType.DEBUG])
+     */
+    fun setMinLogLevel(logType: LogType) {
+        minLogLevel = logType
+    }
+
+    /**
+     * Restricts logging to the given categories; `null` enables every category.
+     * ERROR logs and crash events are recorded whatever their category.
+     *
+     * @param categories The enabled categories
+     */
+    fun setEnabledCategories(categories: Set<LogCategory>?) {
+        enabledCategories = categories
+    }
+
+    /**
+     * Returns whether a log with these attributes passes the level and category filters.
+     * ERROR logs and crash events always pass. Has no side effects, so it can guard expensive
+     * log construction; sampling and rate limiting are applied once a log is actually added.
+     */
+    fun isLoggable(logType: LogType, category: LogCategory?, eventName: EventName?): Boolean {
+        if (isAlwaysKept(logType, eventName)) return true
+        if (logType.severity < minLogLevel.severity) return false
+        val categories = enabledCategories
+        return categories == null || category == null || category in categories
+    }
+
     /**
      * Adds a log to the batch and triggers debounced log sending.
+     * Logs rejected by the level, category, sampling or rate limiting checks are dropped here.
+     * Lock-free; when the buffer is full the oldest DEBUG logs are dropped first.
      *
      * @param log The log entry to be added to the batch
      */
     fun addLog(log: HSLog) {
-        val shouldSendNow: Boolean
+        enqueue(log.logType, log.category, log.eventName) { log }
+    }
 
-        synchronized(lock) {
-            logsBatch.add(log)
-            shouldSendNow = logsBatch.size >= BUCKET_SIZE
+    /**
+     * Builds and adds the log only if it passes the level, category, sampling and rate
+     * limiting checks, so a [HSLog.LogBuilder.valueSupplier] is never run for dropped logs.
+     *
+     * @param builder The partially configured log
+     */
+    fun addLog(builder: HSLog.LogBuilder) {
+        enqueue(builder.pendingLogType, builder.pendingCategory, builder.pendingEventName) { builder.build() }
+    }
+
+    /**
+     * Logs an event whose remaining fields and value are only computed if it passes the
+     * level, category, sampling and rate limiting checks.
+     *
+     * ```
+     * HyperLogManager.log(LogType.DEBUG, LogCategory.USER_EVENT, EventName.CHECKOUT_INIT) {
+     *     valueSupplier { expensiveDescription() }
+     * }
+     * ```
+     */
+    inline fun log(
+        logType: LogType,
+        category: LogCategory,
+        eventName: EventName,
+        crossinline configure: HSLog.LogBuilder.() -> Unit
+    ) {
+        if (!isLoggable(logType, category, eventName)) return
+        enqueue(logType, category, eventName) {
+            HSLog.LogBuilder().logType(logType).category(category).eventName(eventName).apply(configure).build()
         }
+    }
 
-        if (shouldSendNow) {
-            sendLogsOverNetwork()
-        } else {
+    /**
+     * Applies every check to a log with these attributes and, if it passes, builds it with
+     * [build] and buffers it. The only place a sampling decision or rate limit token is taken.
+     *
+     * @param build Builds the log; returning `null` skips it
+     */
+    @PublishedApi
+    internal fun enqueue(
+        logType: LogType,
+        category: LogCategory?,
+        eventName: EventName?,
+        build: () -> HSLog?
+    ) {
+        if (!isLoggable(logType, category, eventName)) return
+        if (eventName != null && !sampler.shouldKeep(logType, eventName)) return
+        val log = try {
+            build()
+        } catch (_: Exception) {
+            null
+        } ?: return
+        LogBreadcrumbs.record(log.eventName, log.logType, log.category)
+        if (!coalescer.offer(log)) {
             debouncedPushLogs()
+            return
         }
+        buffer(log)
     }
 
-    private fun debouncedPushLogs() {
-        debouncer.debounce { sendLogsOverNetwork() }
+    private fun buffer(log: HSLog) {
+        val buffered = logsBatch.offer(log)
+        if (buffered < 0) return
+
+        if (batchingPolicy.shouldFlush(buffered, logsBatch.sizeBytes)) {
+            flusher.requestFlush()
+        } else {
+            debouncedPushLogs()
+        }
     }
 
-     private fun enrichLogs(
-        logsArray: JSONArray,
-        merchantId: String,
-        otaVersion: String
-    ) {
-        for (i in 0 until logsArray.length()) {
-            logsArray.getJSONObject(i).apply {
-                put("merchant_id", merchantId)
-                put("code_push_version", otaVersion)
-                put("client_core_version", otaVersion)
+    /**
+     * Logs the metrics recorded since the previous report as one [EventName.SDK_METRICS] log.
+     */
+    private fun reportMetrics() {
+        enqueue(LogType.INFO, LogCategory.USER_EVENT, EventName.SDK_METRICS) {
+            HyperMetrics.snapshot()?.let { snapshot ->
+                HSLog.LogBuilder().logType(LogType.INFO).category(LogCategory.USER_EVENT)
+                    .eventName(EventName.SDK_METRICS).value(snapshot).build()
             }
         }
     }
 
-    private fun sendLogsOverNetwork() {
-        val logsToSend: String
-        val endpoint: String
-        val merchantId: String
-        val otaVersion: String
+    /**
+     * Runs [action] on the flusher thread, keeping disk I/O off the caller's thread.
+     */
+    internal fun executeInBackground(action: () -> Unit) {
+        flusher.execute(action)
+    }
 
-        synchronized(lock) {
-            if (logsBatch.isEmpty()) return
+    private fun debouncedPushLogs() {
+        flusher.onLogAdded()
+    }
+
+    private fun sendLogsOverNetwork() {
+        if (logsBatch.isEmpty() && !coalescer.hasPending()) return
+        val enrichment = synchronized(lock) {
             if (publishableKey.isNullOrBlank() || loggingEndPoint.isNullOrBlank()) {
                 debouncedPushLogs()
                 return
             }
+            currentEnrichment()
+        }
 
-            merchantId = publishableKey!!
-            endpoint = loggingEndPoint!!
-            otaVersion = hyperOtaVersion
+        // Summaries go straight into this flush; buffering them would schedule another one.
+        val logsToSend = logsBatch.drain() + coalescer.drain()
+        if (logsToSend.isEmpty()) return
 
-            // create safe snapshot
-            logsBatch.forEach {
-                it.merchantId = merchantId
-                it.codePushVersion = otaVersion
-                it.clientCoreVersion = otaVersion
-            }
+        val store = retryScheduler.offlineStore
+        if (!networkAvailable && store != null) {
+            persist(store, logsToSend, enrichment)
+            return
+        }
 
-            logsToSend = logsBatch.joinToString(prefix = "[", postfix = "]") { it.toJson() }
-            logsBatch.clear()
+        batchingPolicy.split(logsToSend).forEach {
+            retryScheduler.submit(LogUploadBatch.fromLogs(it, enrichment))
         }
+    }
 
+    /**
+     * Writes logs that cannot be uploaded right now to [store], to be sent once a network
+     * is available again.
+     */
+    private fun persist(store: LogOfflineStore, logs: List<HSLog>, enrichment: LogEnrichment) {
         try {
-            HyperNetworking.makePostRequest(endpoint, logsToSend) {}
+            store.add(logs.map { it.toJson(enrichment) })
         } catch (_: Exception) {
-            // optional retry logic here
         }
     }
 
+    /**
+     * Flushes everything pending, including the current metrics, without waiting for the
+     * debounce window, since the process may be killed at any point once it is in the background.
+     */
+    private fun flushOnBackground() {
+        flusher.execute { reportMetrics() }
+        flusher.requestFlush()
+    }
+
+    /**
+     * Releases buffered logs under memory pressure: DEBUG logs are discarded and the rest
+     * are flushed to the network, or to the offline store when there is no network.
+     */
+    private fun trimBuffers() {
+        flusher.execute { logsBatch.dropDebug() }
+        flusher.requestFlush()
+    }
+
+    /**
+     * Performs one upload attempt for [batch] on behalf of [retryScheduler].
+     */
+    private fun uploadBatch(batch: LogUploadBatch, callback: (Result<String>) -> Unit) {
+        val endpoint: String
+        val compression: LogCompression
+        val compressionThreshold: Int
+        val format: LogUploadFormat
+
+        synchronized(lock) {
+            val loggingEndPoint = loggingEndPoint
+            if (publishableKey.isNullOrBlank() || loggingEndPoint.isNullOrBlank()) {
+                callback(Result.failure(IOException("Logging endpoint is not configured")))
+                return
+            }
+            format = if (batch.supportsEnvelope) uploadFormat else LogUploadFormat.ARRAY
+            endpoint = if (format == LogUploadFormat.ENVELOPE) {
+                LogUtils.getVersionedLoggingUrl(loggingEndPoint, ENVELOPE_API_VERSION)
+            } else {
+                loggingEndPoint
+            }
+            compression = this.compression
+            compressionThreshold = compressionThresholdBytes
+        }
+
+        val encoded = encodeLogBody(batch.body(format), compression, compressionThreshold, batch.sizeBytes)
+        HyperNetworking.makePostRequest(
+            endpoint,
+            encoded.body,
+            encoded.headers + (IDEMPOTENCY_KEY_HEADER to batch.idempotencyKey),
+            RequestPriority.BACKGROUND
+        ) { result ->
+            val error = result.exceptionOrNull()
+            if (format == LogUploadFormat.ENVELOPE && error is HttpStatusException &&
+                error.statusCode in ENVELOPE_UNSUPPORTED_STATUS_CODES
+            ) {
+                synchronized(lock) { uploadFormat = LogUploadFormat.ARRAY }
+                uploadBatch(batch, callback)
+            } else {
+                callback(result)
+            }
+        }
+    }
+
+    private fun currentEnrichment() = LogEnrichment(publishableKey.orEmpty(), hyperOtaVersion)
+
     // ---------- file logs ----------
 
+    /**
+     * Uploads logs persisted by [CrashHandler] or spilled after failed retries in bounded
+     * chunks, most severe first. Each chunk is removed from the store only after it was
+     * delivered, so a failed upload resumes from the first undelivered chunk.
+     *
+     * @param fileManager The store holding the persisted logs
+     */
     fun sendLogsFromFile(fileManager: LogFileManager) {
-        val endpoint: String
-        val merchantId: String
-        val otaVersion: String
+        drainOfflineStore(fileManager.store)
+    }
 
+    private fun drainOfflineStore(store: LogOfflineStore) {
         synchronized(lock) {
             if (publishableKey.isNullOrBlank() || loggingEndPoint.isNullOrBlank()) return
-            endpoint = loggingEndPoint!!
-            merchantId = publishableKey!!
-            otaVersion = hyperOtaVersion
         }
 
+        flusher.execute { sendNextChunk(store) }
+    }
+
+    private fun sendNextChunk(store: LogOfflineStore) {
         try {
-            val logArray = fileManager.getAllLogs()
-            if (logArray.length() == 0) return
-
-            HyperNetworking.makePostRequest(
-                endpoint,
-                logArray.toString()
-            ) { result ->
-                result.onSuccess { fileManager.clearFile() }
-            }
+            val chunk = store.readChunk(LogFileManager.DEFAULT_CHUNK_BYTES) ?: return
+            retryScheduler.submit(LogUploadBatch.fromChunk(chunk) {
+                store.discard(chunk)
+                sendNextChunk(store)
+            })
+        } catch (_: Exception) {
+        }
+    }
+
+    /**
+     * Tracks connectivity and drains the offline store whenever a network becomes available.
+     * Requires `ACCESS_NETWORK_STATE`; without it the store is only drained on launch.
+     */
+    private fun registerConnectivityCallback(context: Context) {
+        try {
+            val connectivityManager =
+                context.applicationContext.getSystemService(ConnectivityManager::class.java) ?: return
+            networkAvailable = connectivityManager.activeNetwork != null
+            connectivityManager.registerDefaultNetworkCallback(networkCallback)
+        } catch (_: Exception) {
+        }
+    }
+
+    internal val networkCallback = object : ConnectivityManager.NetworkCallback() {
+        override fun onAvailable(network: Network) {
+            networkAvailable = true
+            retryScheduler.offlineStore?.let { drainOfflineStore(it) }
+        }
+
+        override fun onLost(network: Network) {
+            networkAvailable = false
+        }
+    }
 
+    /**
+     * Flushes pending logs when the app's UI is hidden and shrinks buffers when the
+     * system reports memory pressure, so logs are not lost if the process is then killed.
+     */
+    private fun registerComponentCallbacks(context: Context) {
+        try {
+            context.applicationContext.registerComponentCallbacks(componentCallbacks)
         } catch (_: Exception) {
         }
     }
+
+    internal val componentCallbacks = object : ComponentCallbacks2 {
+        override fun onTrimMemory(level: Int) {
+            @Suppress("DEPRECATION")
+            when {
+                level == ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN -> flushOnBackground()
+                level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW -> trimBuffers()
+            }
+        }
+
+        override fun onConfigurationChanged(newConfig: Configuration) {}
+
+        @Deprecated("Deprecated in Java")
+        override fun onLowMemory() {
+            trimBuffers()
+        }
+    }
+
     fun getAllLogsAsString(): String {
-        val snapshot = synchronized(lock) { logsBatch.toList() }
-        return snapshot.joinToString(prefix = "[", postfix = "]") { it.toJson() }
+        return getAllLogs().joinToString(prefix = "[", postfix = "]")
+    }
+
+    /**
+     * Returns the logs that have not been sent yet, serialized one JSON object per log.
+     * Takes no lock, so it is safe to call from a crashing thread.
+     */
+    fun getAllLogs(): List<String> {
+        val snapshot = logsBatch.snapshot() + coalescer.pending()
+        val enrichment = currentEnrichment()
+        return snapshot.map { it.toJson(enrichment) }
     }
 
 }
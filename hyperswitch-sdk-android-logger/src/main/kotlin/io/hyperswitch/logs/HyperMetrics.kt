@@ -0,0 +1,207 @@
+package io.hyperswitch.logs
+
+import android.os.SystemClock
+import okio.Buffer
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * In-process registry of SDK health metrics.
+ *
+ * Recording is lock-free and allocation-free, so instruments can sit on hot paths.
+ * [HyperLogManager] periodically drains the registry into a single
+ * [EventName.SDK_METRICS] log instead of sending one log per occurrence.
+ * Counters and histograms are reported as deltas since the previous snapshot;
+ * gauges report their latest value.
+ */
+object HyperMetrics {
+
+    const val HTTP_REQUESTS = "http.requests"
+    const val HTTP_FAILURES = "http.failures"
+    const val HTTP_LATENCY_MS = "http.latency_ms"
+    const val HTTP_BYTES_UPLOADED = "http.bytes_uploaded"
+    const val HTTP_CACHE_HITS = "http.cache_hits"
+    const val HTTP_CACHE_REVALIDATIONS = "http.cache_revalidations"
+    const val HTTP_DNS_MS = "http.dns_ms"
+    const val HTTP_CONNECT_MS = "http.connect_ms"
+    const val HTTP_TLS_MS = "http.tls_ms"
+    const val HTTP_CONNECTIONS_OPENED = "http.connections_opened"
+    const val HTTP_CONNECTIONS_REUSED = "http.connections_reused"
+    const val BRIDGE_MESSAGES = "bridge.messages"
+    const val JS_EVALUATION_MS = "js.evaluation_ms"
+    const val WEBVIEW_CREATION_MS = "webview.creation_ms"
+
+    /**
+     * Millisecond bucket bounds used by [histogram] unless others are given.
+     */
+    val DEFAULT_LATENCY_BOUNDS_MS =
+        longArrayOf(1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000)
+
+    private val counters = ConcurrentHashMap<String, MetricCounter>()
+    private val gauges = ConcurrentHashMap<String, MetricGauge>()
+    private val histograms = ConcurrentHashMap<String, MetricHistogram>()
+
+    /**
+     * Returns the counter registered under [name], creating it on first use.
+     */
+    @JvmStatic
+    fun counter(name: String): MetricCounter =
+        counters.computeIfAbsent(name) { MetricCounter() }
+
+    /**
+     * Returns the gauge registered under [name], creating it on first use.
+     */
+    @JvmStatic
+    fun gauge(name: String): MetricGauge =
+        gauges.computeIfAbsent(name) { MetricGauge() }
+
+    /**
+     * Returns the histogram registered under [name], creating it with [bounds] on first use.
+     *
+     * @param bounds Ascending inclusive upper bounds of the buckets; larger values fall into
+     * an overflow bucket. Ignored if the histogram already exists.
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun histogram(name: String, bounds: LongArray = DEFAULT_LATENCY_BOUNDS_MS): MetricHistogram =
+        histograms.computeIfAbsent(name) { MetricHistogram(bounds) }
+
+    /**
+     * Drains every counter and histogram and serializes them, together with the current
+     * gauge values, as a JSON object.
+     *
+     * @return The snapshot, or `null` if nothing was recorded since the previous one
+     */
+    internal fun snapshot(): String? {
+        val counterValues = counters.mapValues { it.value.drain() }.filterValues { it != 0L }
+        val histogramValues = histograms.mapValues { it.value.drain() }.filterValues { it.count > 0 }
+        if (counterValues.isEmpty() && histogramValues.isEmpty()) return null
+
+        val buffer = Buffer()
+        val writer = LogJsonWriter(buffer).beginObject()
+        writer.name("counters").beginObject()
+        counterValues.forEach { (name, value) -> writer.field(name, value) }
+        writer.endObject()
+        writer.name("gauges").beginObject()
+        gauges.forEach { (name, gauge) -> writer.field(name, gauge.get()) }
+        writer.endObject()
+        writer.name("histograms").beginObject()
+        histogramValues.forEach { (name, snapshot) ->
+            writer.name(name)
+            snapshot.writeJson(writer)
+        }
+        writer.endObject().endObject()
+        return buffer.readUtf8()
+    }
+}
+
+/**
+ * Monotonic event counter backed by a [LongAdder].
+ */
+class MetricCounter internal constructor() {
+
+    private val adder = LongAdder()
+
+    fun increment() = adder.increment()
+
+    fun add(delta: Long) = adder.add(delta)
+
+    internal fun drain(): Long = adder.sumThenReset()
+}
+
+/**
+ * Holds the latest value of a sampled quantity, such as a queue depth.
+ */
+class MetricGauge internal constructor() {
+
+    private val value = AtomicLong()
+
+    fun set(value: Long) = this.value.set(value)
+
+    fun get(): Long = value.get()
+}
+
+/**
+ * Fixed-bucket histogram. Quantiles are estimated as the upper bound of the bucket
+ * holding them, which keeps recording to one bucket increment and two atomic updates.
+ *
+ * @param bounds Ascending inclusive upper bounds of the buckets
+ */
+class MetricHistogram internal constructor(private val bounds: LongArray) {
+
+    private val buckets = AtomicLongArray(bounds.size + 1)
+    private val sum = LongAdder()
+    private val max = AtomicLong(0L)
+
+    fun record(value: Long) {
+        var index = bounds.binarySearch(value)
+        if (index < 0) index = -index - 1
+        buckets.incrementAndGet(index)
+        sum.add(value)
+        max.accumulateAndGet(value) { current, new -> maxOf(current, new) }
+    }
+
+    /**
+     * Records the duration of [block] in milliseconds.
+     */
+    inline fun <T> time(block: () -> T): T {
+        val start = SystemClock.elapsedRealtimeNanos()
+        try {
+            return block()
+        } finally {
+            recordSince(start)
+        }
+    }
+
+    /**
+     * Records the milliseconds elapsed since [startNanos], a value of
+     * [SystemClock.elapsedRealtimeNanos].
+     */
+    fun recordSince(startNanos: Long) {
+        record(TimeUnit.NANOSECONDS.toMillis(SystemClock.elapsedRealtimeNanos() - startNanos))
+    }
+
+    internal fun drain(): Snapshot {
+        val counts = LongArray(buckets.length()) { buckets.getAndSet(it, 0L) }
+        return Snapshot(bounds, counts, sum.sumThenReset(), max.getAndSet(0L))
+    }
+
+    internal class Snapshot(
+        private val bounds: LongArray,
+        private val counts: LongArray,
+        private val sum: Long,
+        private val max: Long
+    ) {
+        val count: Long = counts.sum()
+
+        fun quantile(q: Double): Long {
+            val rank = kotlin.math.ceil(count * q).toLong().coerceAtLeast(1L)
+            var seen = 0L
+            counts.forEachIndexed { index, bucketCount ->
+                seen += bucketCount
+                if (seen >= rank) return if (index < bounds.size) minOf(bounds[index], max) else max
+            }
+            return max
+        }
+
+        fun writeJson(writer: LogJsonWriter) {
+            writer.beginObject()
+                .field("count", count)
+                .field("sum", sum)
+                .field("max", max)
+                .field("p50", quantile(0.5))
+                .field("p90", quantile(0.9))
+                .field("p99", quantile(0.99))
+            writer.name("bounds").beginArray()
+            bounds.forEach { writer.value(it) }
+            writer.endArray()
+            writer.name("counts").beginArray()
+            counts.forEach { writer.value(it) }
+            writer.endArray()
+            writer.endObject()
+        }
+    }
+}
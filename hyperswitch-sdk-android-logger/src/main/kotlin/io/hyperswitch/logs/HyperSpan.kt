@@ -0,0 +1,81 @@
+package io.hyperswitch.logs
+
+import android.os.SystemClock
+import kotlinx.coroutines.asContextElement
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.coroutines.CoroutineContext
+
+/**
+ * A timed SDK phase started by [HyperTracer.start].
+ *
+ * Ending the span logs the phase's completion event with the elapsed time in
+ * [HSLog.latency] and the span and parent span IDs in [HSLog.internalMetadata].
+ *
+ * @property eventName Event the phase started with, e.g. [EventName.CHECKOUT_INIT]
+ * @property category Category of the completion log
+ * @property spanId Random 64-bit ID of this span, as 16 hex digits
+ * @property parentSpanId ID of the enclosing span, or `null` for a root span
+ */
+class HyperSpan internal constructor(
+    val eventName: EventName,
+    val category: LogCategory,
+    val spanId: String,
+    val parentSpanId: String?,
+    internal val previous: HyperSpan?
+) {
+
+    private val startNanos = SystemClock.elapsedRealtimeNanos()
+    private val ended = AtomicBoolean(false)
+
+    /**
+     * Time elapsed since the span started, in milliseconds.
+     */
+    val elapsedMillis: Long
+        get() = TimeUnit.NANOSECONDS.toMillis(SystemClock.elapsedRealtimeNanos() - startNanos)
+
+    internal val isEnded: Boolean
+        get() = ended.get()
+
+    /**
+     * Ends the span and logs [HyperTracer.completionEventOf] of [eventName] with the
+     * measured latency. Only the first call has an effect.
+     *
+     * @param logType Type of the completion log
+     * @param configure Sets additional fields of the completion log, such as the value or session
+     * @return The measured latency in milliseconds
+     */
+    @JvmOverloads
+    fun end(
+        logType: LogType = LogType.INFO,
+        configure: HSLog.LogBuilder.() -> Unit = {}
+    ): Long {
+        val latencyMillis = elapsedMillis
+        if (!ended.compareAndSet(false, true)) return latencyMillis
+        HyperTracer.onEnded(this)
+        HyperLogManager.log(logType, category, HyperTracer.completionEventOf(eventName)) {
+            configure()
+            latency(latencyMillis.toString())
+            internalMetadata(metadata())
+        }
+        return latencyMillis
+    }
+
+    /**
+     * Returns a coroutine context element that makes this span current in every coroutine
+     * it is added to, so spans started there are nested under it even after switching threads.
+     *
+     * ```
+     * withContext(Dispatchers.IO + span.asContextElement()) {
+     *     HyperTracer.start(EventName.SCRIPT_LOAD_INIT).end()
+     * }
+     * ```
+     */
+    fun asContextElement(): CoroutineContext.Element =
+        HyperTracer.currentSpan.asContextElement(this)
+
+    private fun metadata(): String {
+        val parent = parentSpanId?.let { ",\"parent_span_id\":\"$it\"" } ?: ""
+        return "{\"span_id\":\"$spanId\"$parent}"
+    }
+}
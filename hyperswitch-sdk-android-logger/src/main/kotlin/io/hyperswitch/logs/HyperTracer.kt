@@ -0,0 +1,135 @@
+package io.hyperswitch.logs
+
+import kotlinx.coroutines.withContext
+import kotlin.random.Random
+
+/**
+ * Measures SDK phases as spans and logs their latency through [HyperLogManager].
+ *
+ * A span is started with the `_INIT` event of a phase and, when ended, logs the matching
+ * `_RETURNED` event with the latency filled in. Spans started while another span is current
+ * on the same thread, or in a coroutine carrying [HyperSpan.asContextElement], become its children.
+ *
+ * ```
+ * val span = HyperTracer.start(EventName.CREATE_WEBVIEW_INIT)
+ * createWebView()
+ * span.end()
+ * ```
+ */
+object HyperTracer {
+
+    internal val currentSpan = ThreadLocal<HyperSpan?>()
+
+    /**
+     * The span most recently started and not yet ended on this thread, if any.
+     *
+     * A span may be ended on another thread than the one it was started on, which cannot
+     * update this thread's current span; ended spans are skipped and cleared here instead.
+     */
+    fun current(): HyperSpan? {
+        val current = currentSpan.get()
+        var span = current
+        while (span != null && span.isEnded) {
+            span = span.previous
+        }
+        if (span !== current) currentSpan.set(span)
+        return span
+    }
+
+    /**
+     * Starts a span and makes it current on this thread until it ends.
+     *
+     * @param eventName Event marking the start of the phase
+     * @param category Category of the completion log
+     * @param parent Enclosing span, the current span by default
+     * @return The started span
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun start(
+        eventName: EventName,
+        category: LogCategory = LogCategory.USER_EVENT,
+        parent: HyperSpan? = current()
+    ): HyperSpan {
+        val span = newSpan(eventName, category, parent, current())
+        currentSpan.set(span)
+        return span
+    }
+
+    /**
+     * Runs [block] inside a span that is ended when the block returns, or ended with
+     * [LogType.ERROR] if it throws.
+     */
+    inline fun <T> trace(
+        eventName: EventName,
+        category: LogCategory = LogCategory.USER_EVENT,
+        block: (HyperSpan) -> T
+    ): T {
+        val span = start(eventName, category)
+        val result = try {
+            block(span)
+        } catch (e: Throwable) {
+            span.end(LogType.ERROR) { value(e.message ?: e.javaClass.name) }
+            throw e
+        }
+        span.end()
+        return result
+    }
+
+    /**
+     * Suspending variant of [trace]. The span stays current inside [block] across
+     * suspension points and thread switches.
+     */
+    suspend fun <T> traceSuspend(
+        eventName: EventName,
+        category: LogCategory = LogCategory.USER_EVENT,
+        block: suspend (HyperSpan) -> T
+    ): T {
+        val span = newSpan(eventName, category, current(), null)
+        val result = try {
+            withContext(span.asContextElement()) { block(span) }
+        } catch (e: Throwable) {
+            span.end(LogType.ERROR) { value(e.message ?: e.javaClass.name) }
+            throw e
+        }
+        span.end()
+        return result
+    }
+
+    /**
+     * Returns the event logged when a span started with [eventName] ends: the `_RETURNED`
+     * counterpart of an `_INIT` event, or [eventName] itself if it has none.
+     */
+    fun completionEventOf(eventName: EventName): EventName = when (eventName) {
+        EventName.HYPER_OTA_INIT -> EventName.HYPER_OTA_FINISH
+        EventName.DCTP_SCRIPT_LOAD_INIT -> EventName.DCTP_SCRIPT_LOAD_RETURN
+        EventName.CLOSE_HYPER_INSTANCE -> EventName.CLOSE_HYPER_INSTANCE_RETURNED
+        else -> {
+            val name = eventName.name
+            if (name.endsWith(INIT_SUFFIX)) {
+                EventName.entries.find { it.name == name.removeSuffix(INIT_SUFFIX) + RETURNED_SUFFIX }
+                    ?: eventName
+            } else {
+                eventName
+            }
+        }
+    }
+
+    internal fun onEnded(span: HyperSpan) {
+        if (currentSpan.get() === span) {
+            currentSpan.set(span.previous)
+        }
+    }
+
+    private fun newSpan(
+        eventName: EventName,
+        category: LogCategory,
+        parent: HyperSpan?,
+        previous: HyperSpan?
+    ) = HyperSpan(eventName, category, newSpanId(), parent?.spanId, previous)
+
+    private fun newSpanId(): String = "%016x".format(Random.nextLong())
+
+    private const val INIT_SUFFIX = "_INIT"
+    private const val RETURNED_SUFFIX = "_RETURNED"
+}
@@ -0,0 +1,48 @@
+package io.hyperswitch.logs
+
+/**
+ * Controls when buffered logs are flushed and how a flush is split into uploads.
+ *
+ * The defaults favour fewer, larger uploads so the radio wakes up less often, while
+ * [maxLatencyMillis] keeps a bound on how stale a log can get.
+ *
+ * @property maxRecords Flush once this many logs are buffered; also the largest batch uploaded
+ * @property maxBytes Flush once the buffered logs reach this estimated serialized size;
+ * also the largest batch uploaded
+ * @property debounceMillis Quiet period after the last log before a flush
+ * @property maxLatencyMillis Hard deadline from the first buffered log to its flush,
+ * which further logs cannot extend
+ */
+data class LogBatchingPolicy(
+    val maxRecords: Int = 50,
+    val maxBytes: Int = 64 * 1024,
+    val debounceMillis: Long = 5_000L,
+    val maxLatencyMillis: Long = 30_000L
+) {
+
+    /**
+     * Returns `true` once a buffer holding [records] logs of [bytes] estimated size should be flushed.
+     */
+    fun shouldFlush(records: Int, bytes: Long): Boolean = records >= maxRecords || bytes >= maxBytes
+
+    /**
+     * Splits [logs] into consecutive batches that respect [maxRecords] and [maxBytes].
+     */
+    fun split(logs: List<HSLog>): List<List<HSLog>> {
+        val batches = mutableListOf<List<HSLog>>()
+        var current = mutableListOf<HSLog>()
+        var currentBytes = 0L
+        logs.forEach { log ->
+            val size = log.estimatedSizeBytes()
+            if (current.isNotEmpty() && (current.size >= maxRecords || currentBytes + size > maxBytes)) {
+                batches.add(current)
+                current = mutableListOf()
+                currentBytes = 0L
+            }
+            current.add(log)
+            currentBytes += size
+        }
+        if (current.isNotEmpty()) batches.add(current)
+        return batches
+    }
+}
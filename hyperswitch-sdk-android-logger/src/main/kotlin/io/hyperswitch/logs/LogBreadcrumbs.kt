@@ -0,0 +1,66 @@
+package io.hyperswitch.logs
+
+import org.json.JSONArray
+import org.json.JSONObject
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * Fixed-size trail of the most recent log events, attached to crash reports by
+ * [CrashHandler] so they show what led up to a crash even after those logs were uploaded.
+ *
+ * Each breadcrumb is kept as primitives in preallocated arrays, so recording takes no
+ * lock and allocates nothing. Readers skip breadcrumbs that are overwritten while being read.
+ */
+internal object LogBreadcrumbs {
+
+    /** Number of breadcrumbs kept; a power of two. */
+    const val CAPACITY = 64
+    private const val MASK = CAPACITY - 1L
+
+    private val cursor = AtomicLong()
+
+    /** Holds the index + 1 of the breadcrumb in each slot, or 0 while it is being written. */
+    private val sequences = AtomicLongArray(CAPACITY)
+    private val timestamps = LongArray(CAPACITY)
+    private val events = IntArray(CAPACITY)
+    private val types = ByteArray(CAPACITY)
+    private val categories = ByteArray(CAPACITY)
+
+    fun record(eventName: EventName, logType: LogType, category: LogCategory) {
+        val index = cursor.getAndIncrement()
+        val slot = (index and MASK).toInt()
+        sequences.set(slot, 0L)
+        timestamps[slot] = System.currentTimeMillis()
+        events[slot] = eventName.ordinal
+        types[slot] = logType.ordinal.toByte()
+        categories[slot] = category.ordinal.toByte()
+        sequences.set(slot, index + 1)
+    }
+
+    /**
+     * Serializes the recorded breadcrumbs, oldest first. Work is bounded by [CAPACITY]
+     * whatever the number of concurrent writers.
+     */
+    fun toJson(): JSONArray {
+        val result = JSONArray()
+        val end = cursor.get()
+        for (index in maxOf(0L, end - CAPACITY) until end) {
+            val slot = (index and MASK).toInt()
+            if (sequences.get(slot) != index + 1) continue
+            val timestamp = timestamps[slot]
+            val event = events[slot]
+            val type = types[slot].toInt()
+            val category = categories[slot].toInt()
+            if (sequences.get(slot) != index + 1) continue
+            result.put(
+                JSONObject()
+                    .put("ts", timestamp)
+                    .put("event", EventName.entries[event].name)
+                    .put("type", LogType.entries[type].name)
+                    .put("category", LogCategory.entries[category].name)
+            )
+        }
+        return result
+    }
+}
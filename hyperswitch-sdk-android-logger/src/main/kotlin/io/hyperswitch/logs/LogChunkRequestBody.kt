@@ -0,0 +1,29 @@
+package io.hyperswitch.logs
+
+import okhttp3.MediaType
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.RequestBody
+import okio.BufferedSink
+
+/**
+ * Request body that streams stored log records into a JSON array without
+ * joining them into an intermediate String.
+ *
+ * @param records Serialized JSON objects, one per log
+ */
+class LogChunkRequestBody(private val records: List<ByteArray>) : RequestBody() {
+
+    override fun contentType(): MediaType = "application/json".toMediaType()
+
+    override fun contentLength(): Long =
+        records.sumOf { it.size.toLong() } + records.size.coerceAtLeast(1) + 1
+
+    override fun writeTo(sink: BufferedSink) {
+        sink.writeByte('['.code)
+        records.forEachIndexed { index, record ->
+            if (index > 0) sink.writeByte(','.code)
+            sink.write(record)
+        }
+        sink.writeByte(']'.code)
+    }
+}
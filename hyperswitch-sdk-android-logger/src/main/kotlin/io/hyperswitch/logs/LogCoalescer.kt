@@ -0,0 +1,115 @@
+package io.hyperswitch.logs
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.TimeUnit
+
+/**
+ * Collapses bursts of identical logs, such as the same error repeated on every retry.
+ *
+ * The first log of a key is passed through. Repeats within [windowMillis] are absorbed
+ * and reported by [drain] as a single log carrying the repeat count, the timestamp of
+ * the first occurrence and that of the last repeat. Logs are identical when their event
+ * name, type, category and value match, ignoring digits in the value.
+ *
+ * @param windowMillis Suppression window per key; 0 disables coalescing
+ * @param clock Monotonic time source in nanoseconds
+ */
+internal class LogCoalescer(
+    @Volatile var windowMillis: Long,
+    private val clock: () -> Long = System::nanoTime
+) {
+
+    private data class Key(
+        val eventName: EventName,
+        val logType: LogType,
+        val category: LogCategory,
+        val valueHash: Int
+    )
+
+    private class Entry(val windowStart: Long, val firstTimestamp: String) {
+        @Volatile
+        var repeats: HSLog? = null
+
+        fun absorb(log: HSLog) {
+            val current = repeats
+            repeats = if (current == null) {
+                log.copy(repeatCount = 1, firstTimestamp = firstTimestamp)
+            } else {
+                current.copy(repeatCount = current.repeatCount + 1, timestamp = log.timestamp)
+            }
+        }
+    }
+
+    private val entries = ConcurrentHashMap<Key, Entry>()
+    private val expired = ConcurrentLinkedQueue<HSLog>()
+
+    /**
+     * Records [log] and returns whether it should be buffered; `false` means it was absorbed.
+     */
+    fun offer(log: HSLog): Boolean {
+        val window = TimeUnit.MILLISECONDS.toNanos(windowMillis)
+        if (window <= 0L) return true
+        val now = clock()
+        var passThrough = false
+        entries.compute(keyOf(log)) { _, entry ->
+            if (entry != null && now - entry.windowStart < window) {
+                entry.absorb(log)
+                entry
+            } else {
+                entry?.repeats?.let { expired.add(it) }
+                passThrough = true
+                Entry(now, log.timestamp)
+            }
+        }
+        return passThrough
+    }
+
+    /**
+     * Returns one summary log per key that absorbed repeats since the last call, and forgets
+     * keys whose window has expired.
+     */
+    fun drain(): List<HSLog> {
+        val window = TimeUnit.MILLISECONDS.toNanos(windowMillis)
+        val now = clock()
+        val summaries = mutableListOf<HSLog>()
+        while (true) summaries.add(expired.poll() ?: break)
+        entries.keys.forEach { key ->
+            entries.computeIfPresent(key) { _, entry ->
+                entry.repeats?.let { summaries.add(it) }
+                entry.repeats = null
+                if (now - entry.windowStart >= window) null else entry
+            }
+        }
+        return summaries
+    }
+
+    /**
+     * Returns whether [drain] would emit at least one summary.
+     */
+    fun hasPending(): Boolean = expired.isNotEmpty() || entries.values.any { it.repeats != null }
+
+    /**
+     * Returns the summaries [drain] would emit, without consuming them.
+     */
+    fun pending(): List<HSLog> = expired.toList() + entries.values.mapNotNull { it.repeats }
+
+    private fun keyOf(log: HSLog) =
+        Key(log.eventName, log.logType, log.category, normalize(log.value).hashCode())
+
+    private fun normalize(value: String): String {
+        if (value.none { it.isDigit() }) return value
+        val builder = StringBuilder(value.length)
+        var inDigits = false
+        value.forEach { char ->
+            if (char.isDigit()) {
+                if (!inDigits) builder.append('#')
+                inDigits = true
+            } else {
+                builder.append(char)
+                inDigits = false
+            }
+        }
+        return builder.toString()
+    }
+}
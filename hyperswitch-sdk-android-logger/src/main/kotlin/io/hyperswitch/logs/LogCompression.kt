@@ -0,0 +1,60 @@
+package io.hyperswitch.logs
+
+import okhttp3.MediaType
+import okhttp3.RequestBody
+import okio.BufferedSink
+import okio.GzipSink
+import okio.buffer
+
+/**
+ * Compression applied to log upload bodies.
+ *
+ * Brotli is not offered: OkHttp only decodes it in responses, and encoding it on the
+ * device would need a native library, so gzip is the only compressed encoding.
+ *
+ * @property contentEncoding Value sent in the `Content-Encoding` header, if any
+ */
+enum class LogCompression(val contentEncoding: String?) {
+    NONE(null),
+    GZIP("gzip")
+}
+
+/**
+ * A log upload body together with the headers that describe its encoding.
+ */
+internal class EncodedLogBody(val body: RequestBody, val headers: Map<String, String>)
+
+/**
+ * Compresses [body] with [compression] when it is expected to reach [thresholdBytes].
+ * Smaller bodies, and every body when compression is off, are passed through unchanged.
+ *
+ * @param sizeBytes Size of [body] when its length is unknown up front, usually an estimate
+ */
+internal fun encodeLogBody(
+    body: RequestBody,
+    compression: LogCompression,
+    thresholdBytes: Int,
+    sizeBytes: Long
+): EncodedLogBody {
+    val encoding = compression.contentEncoding ?: return EncodedLogBody(body, emptyMap())
+    val length = body.contentLength().takeIf { it >= 0 } ?: sizeBytes
+    if (length < thresholdBytes) return EncodedLogBody(body, emptyMap())
+    return EncodedLogBody(GzipRequestBody(body), mapOf("Content-Encoding" to encoding))
+}
+
+/**
+ * Gzips [body] while it is written to the request stream, so the compressed body is
+ * never held in memory.
+ */
+private class GzipRequestBody(private val body: RequestBody) : RequestBody() {
+
+    override fun contentType(): MediaType? = body.contentType()
+
+    override fun contentLength(): Long = -1
+
+    override fun writeTo(sink: BufferedSink) {
+        val gzipSink = GzipSink(sink).buffer()
+        body.writeTo(gzipSink)
+        gzipSink.close()
+    }
+}
@@ -1,12 +1,23 @@
 package io.hyperswitch.logs
 
-import org.json.JSONException
-import org.json.JSONObject
+import okio.Buffer
+import java.io.IOException
 
 enum class LogType {
     DEBUG, INFO, ERROR, WARNING
 }
 
+/**
+ * Ordering of [LogType] by severity, independent of declaration order.
+ */
+internal val LogType.severity: Int
+    get() = when (this) {
+        LogType.DEBUG -> 0
+        LogType.INFO -> 1
+        LogType.WARNING -> 2
+        LogType.ERROR -> 3
+    }
+
 enum class LogCategory {
     API, USER_ERROR, USER_EVENT, MERCHANT_EVENT, OTA_LIFE_CYCLE
 }
@@ -50,7 +61,8 @@ enum class EventName {
     CLOSE_HYPER_INSTANCE_RETURNED,
     WEBVIEW,
     CTP_CORRELATION_VALUE,
-    CONSOLE_LOG
+    CONSOLE_LOG,
+    SDK_METRICS
 }
 
 data class HSLog(
@@ -75,53 +87,83 @@ data class HSLog(
     val firstEvent: Boolean = false,
     val paymentMethod: String? = null,
     val paymentExperience: String? = null,
-    val source: String
+    val source: String,
+    val repeatCount: Int = 1,
+    val firstTimestamp: String? = null
 ) {
-    fun toJson(): String {
-        try {
-
-            val logData = JSONObject().apply {
-                put("timestamp", timestamp)
-                put("log_type", logType.name)
-                put("component", component)
-                put("category", category.toString())
-                put("version", version)
-                put("code_push_version", codePushVersion)
-                put("client_core_version", clientCoreVersion)
-                put("value", value)
-                put("internal_metadata", internalMetadata)
-                put("session_id", sessionId)
-                put("authentication_id", authenticationId)
-                put("merchant_id", merchantId)
-                put("payment_id", paymentId)
-                put("app_id", appId ?: "")
-                put("platform", platform)
-                put("user_agent", userAgent)
-                put("event_name", eventName.name)
-                put("first_event", firstEvent.toString())
-                put("payment_method", paymentMethod ?: "")
-                put("payment_experience", paymentExperience ?: "")
-                put("latency", latency ?: "")
-                put("source", source)
-            }
+    fun toJson(): String = toJson(null)
+
+    internal fun toJson(enrichment: LogEnrichment?): String {
+        return try {
+            val buffer = Buffer()
+            writeJson(LogJsonWriter(buffer), enrichment)
+            buffer.readUtf8()
+        } catch (e: IOException) {
+            ""
+        }
+    }
+
+    /**
+     * Cheap upper-bound estimate of the serialized size, used for byte-aware batching.
+     */
+    fun estimatedSizeBytes(): Int =
+        JSON_OVERHEAD_BYTES + timestamp.length + component.length + version.length +
+            codePushVersion.length + clientCoreVersion.length + value.length +
+            internalMetadata.length + sessionId.length + authenticationId.length +
+            merchantId.length + paymentId.length + (appId?.length ?: 0) + platform.length +
+            userAgent.length + eventName.name.length + (latency?.length ?: 0) +
+            (paymentMethod?.length ?: 0) + (paymentExperience?.length ?: 0) + source.length +
+            (firstTimestamp?.let { it.length + timestamp.length + REPEAT_FIELDS_OVERHEAD_BYTES } ?: 0)
+
+    internal fun writeJson(writer: LogJsonWriter, enrichment: LogEnrichment? = null) {
+        writer.beginObject()
+        LogEnvelopeHeader.of(this, enrichment).writeFields(writer)
+        writeEventFields(writer)
+        writer.endObject()
+    }
 
-            val jsonString = logData.toString()
-            return jsonString
-        } catch (e: JSONException) {
-            return ""
+    /**
+     * Writes the fields that vary between logs of the same batch.
+     */
+    internal fun writeEventFields(writer: LogJsonWriter) {
+        writer
+            .field("timestamp", timestamp)
+            .field("log_type", logType.name)
+            .field("category", category.toString())
+            .field("value", value)
+            .field("internal_metadata", internalMetadata)
+            .field("authentication_id", authenticationId)
+            .field("payment_id", paymentId)
+            .field("event_name", eventName.name)
+            .field("first_event", firstEvent.toString())
+            .field("payment_method", paymentMethod ?: "")
+            .field("payment_experience", paymentExperience ?: "")
+            .field("latency", latency ?: "")
+            .field("source", source)
+        if (firstTimestamp != null) {
+            writer
+                .field("count", repeatCount.toLong())
+                .field("first_ts", firstTimestamp)
+                .field("last_ts", timestamp)
         }
     }
 
+    private companion object {
+        // field names, quotes and separators of the serialized object
+        const val JSON_OVERHEAD_BYTES = 400
+        const val REPEAT_FIELDS_OVERHEAD_BYTES = 50
+    }
 
     class LogBuilder {
         private var timestamp: String = System.currentTimeMillis().toString()
         private var logType: LogType = LogType.INFO
         private var component: String = "MOBILE"
-        private lateinit var category: LogCategory
+        private var category: LogCategory? = null
         private var version: String = ""
         private var codePushVersion: String = ""
         private var clientCoreVersion: String = ""
         private var value: String = ""
+        private var valueSupplier: (() -> String)? = null
         private var internalMetadata: String = ""
         private var sessionId: String = ""
         private var authenticationId: String = ""
@@ -130,7 +172,7 @@ data class HSLog(
         private var appId: String? = null
         private var platform: String = "ANDROID"
         private var userAgent: String = ""
-        private lateinit var eventName: EventName
+        private var eventName: EventName? = null
         private var latency: String? = null
         private var firstEvent: Boolean = false
         private var paymentMethod: String? = null
@@ -156,7 +198,16 @@ data class HSLog(
         fun clientCoreVersion(clientCoreVersion: String) =
             apply { this.clientCoreVersion = clientCoreVersion }
 
-        fun value(value: String) = apply { this.value = value }
+        fun value(value: String) = apply {
+            this.value = value
+            this.valueSupplier = null
+        }
+
+        /**
+         * Defers building the value until [build], so work done by [supplier] is skipped
+         * when the log is filtered out by [HyperLogManager.addLog].
+         */
+        fun valueSupplier(supplier: () -> String) = apply { this.valueSupplier = supplier }
         fun internalMetadata(internalMetadata: String) =
             apply { this.internalMetadata = internalMetadata }
 
@@ -178,12 +229,25 @@ data class HSLog(
 
         fun source(source: String) = apply { this.source = source }
 
+        internal val pendingLogType: LogType
+            get() = logType
+
+        internal val pendingCategory: LogCategory?
+            get() = category
+
+        internal val pendingEventName: EventName?
+            get() = eventName
+
         fun build(): HSLog {
+            valueSupplier?.let {
+                value = it()
+                valueSupplier = null
+            }
             return HSLog(
                 timestamp,
                 logType,
                 component,
-                category,
+                checkNotNull(category) { "category must be set" },
                 version,
                 codePushVersion,
                 clientCoreVersion,
@@ -196,7 +260,7 @@ data class HSLog(
                 appId,
                 platform,
                 userAgent,
-                eventName,
+                checkNotNull(eventName) { "eventName must be set" },
                 latency,
                 firstEvent,
                 paymentMethod,
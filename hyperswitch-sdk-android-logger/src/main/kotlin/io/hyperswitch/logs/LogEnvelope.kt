@@ -0,0 +1,105 @@
+package io.hyperswitch.logs
+
+import okhttp3.MediaType
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.RequestBody
+import okio.BufferedSink
+
+/**
+ * Wire format used for log uploads.
+ */
+enum class LogUploadFormat {
+    /** A JSON array with every field repeated in every log. Accepted by every logging endpoint. */
+    ARRAY,
+
+    /**
+     * Logs grouped under a shared header holding the fields common to the group, posted to
+     * the versioned endpoint. Falls back to [ARRAY] if the endpoint does not accept it.
+     */
+    ENVELOPE
+}
+
+/**
+ * Values filled in by [HyperLogManager] at upload time instead of on every log.
+ */
+internal data class LogEnrichment(val merchantId: String, val otaVersion: String)
+
+/**
+ * Fields that are normally identical for every log of a batch.
+ */
+internal data class LogEnvelopeHeader(
+    val version: String,
+    val codePushVersion: String,
+    val clientCoreVersion: String,
+    val merchantId: String,
+    val userAgent: String,
+    val platform: String,
+    val component: String,
+    val appId: String,
+    val sessionId: String
+) {
+
+    fun writeFields(writer: LogJsonWriter) {
+        writer
+            .field("version", version)
+            .field("code_push_version", codePushVersion)
+            .field("client_core_version", clientCoreVersion)
+            .field("merchant_id", merchantId)
+            .field("user_agent", userAgent)
+            .field("platform", platform)
+            .field("component", component)
+            .field("app_id", appId)
+            .field("session_id", sessionId)
+    }
+
+    companion object {
+        fun of(log: HSLog, enrichment: LogEnrichment?) = LogEnvelopeHeader(
+            version = log.version,
+            codePushVersion = enrichment?.otaVersion ?: log.codePushVersion,
+            clientCoreVersion = enrichment?.otaVersion ?: log.clientCoreVersion,
+            merchantId = enrichment?.merchantId ?: log.merchantId,
+            userAgent = log.userAgent,
+            platform = log.platform,
+            component = log.component,
+            appId = log.appId ?: "",
+            sessionId = log.sessionId
+        )
+    }
+}
+
+/**
+ * Request body for [LogUploadFormat.ENVELOPE]:
+ * `{"envelopes":[{"header":{...},"events":[{...}]}]}`, with one envelope per distinct header
+ * in order of first appearance.
+ *
+ * @param logs The logs to send, in order
+ * @param enrichment Values applied to every header
+ */
+internal class HSLogEnvelopeRequestBody(
+    private val logs: List<HSLog>,
+    private val enrichment: LogEnrichment?
+) : RequestBody() {
+
+    override fun contentType(): MediaType = "application/json".toMediaType()
+
+    override fun writeTo(sink: BufferedSink) {
+        val groups = LinkedHashMap<LogEnvelopeHeader, MutableList<HSLog>>()
+        logs.forEach { log ->
+            groups.getOrPut(LogEnvelopeHeader.of(log, enrichment)) { mutableListOf() }.add(log)
+        }
+
+        val writer = LogJsonWriter(sink).beginObject().name("envelopes").beginArray()
+        groups.forEach { (header, events) ->
+            writer.beginObject().name("header").beginObject()
+            header.writeFields(writer)
+            writer.endObject().name("events").beginArray()
+            events.forEach {
+                writer.beginObject()
+                it.writeEventFields(writer)
+                writer.endObject()
+            }
+            writer.endArray().endObject()
+        }
+        writer.endArray().endObject()
+    }
+}
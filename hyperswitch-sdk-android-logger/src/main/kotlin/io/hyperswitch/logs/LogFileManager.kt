@@ -3,57 +3,98 @@ package io.hyperswitch.logs
 import android.content.Context
 import org.json.JSONArray
 import org.json.JSONException
+import org.json.JSONObject
 import java.io.File
 import java.io.IOException
 
+/**
+ * Persists logs that could not be sent before the process died, for upload on the next launch.
+ *
+ * Backed by the app's shared [LogOfflineStore], where every record is one serialized [HSLog],
+ * so adding logs costs the size of the new logs and the store never outgrows its byte budget.
+ */
 class LogFileManager(private val context: Context) {
 
-    private val crashLogFileName = "crash_logs.json"
+    private val legacyLogFileName = "crash_logs.json"
+    internal val store = LogOfflineStore.get(context)
+
+    init {
+        HyperLogManager.executeInBackground { migrateLegacyFile() }
+    }
+
+    /**
+     * Appends the logs contained in a JSON array string.
+     *
+     * @param log JSON array of serialized logs, as returned by [HyperLogManager.getAllLogsAsString]
+     */
     fun addLog(log: String) {
         try {
-            val existingLogs = getAllLogs()
             val newLogsArray = JSONArray(log)
-            for (i in 0 until newLogsArray.length()) {
-                existingLogs.put(newLogsArray.get(i))
+            val records = (0 until newLogsArray.length()).map {
+                newLogsArray.get(it).toString()
             }
-            writeLogsToFile(existingLogs)
+            store.add(records)
         } catch (e: JSONException) {
             e.printStackTrace()
         }
     }
 
+    /**
+     * Appends already serialized logs, one record per log.
+     *
+     * @param logs Serialized JSON objects, oldest first
+     */
+    fun addLogs(logs: List<String>) {
+        store.add(logs)
+    }
+
+    /**
+     * Reads the oldest stored logs of the most severe level, bounded by [maxChunkBytes],
+     * without loading the whole store.
+     *
+     * @param maxChunkBytes Upper bound for the payload size of the returned chunk
+     * @return The chunk, or `null` if nothing is stored
+     */
+    fun readChunk(maxChunkBytes: Int = DEFAULT_CHUNK_BYTES): LogJournal.Chunk? =
+        store.readChunk(maxChunkBytes)
+
+    /**
+     * Removes the logs of a chunk once it has been delivered.
+     */
+    fun discard(chunk: LogJournal.Chunk) {
+        store.discard(chunk)
+    }
+
     fun getAllLogs(): JSONArray {
-        return try {
-            val file = File(context.filesDir, crashLogFileName)
-            if (file.exists()) {
-                val content = file.readText()
-                JSONArray(content)
-            } else {
-                JSONArray()
+        val logs = JSONArray()
+        store.forEachRecord { record ->
+            try {
+                logs.put(JSONObject(String(record, Charsets.UTF_8)))
+            } catch (_: JSONException) {
             }
-        } catch (e: JSONException) {
-            JSONArray()
-        } catch (e: IOException) {
-            JSONArray()
+            true
         }
+        return logs
     }
 
-    private fun writeLogsToFile(logs: JSONArray) {
-        try {
-            val file = File(context.filesDir, crashLogFileName)
-            file.writeText(logs.toString()) // Write the logs as a JSON string
-        } catch (e: IOException) {
-            e.printStackTrace()
-        }
-    }
     fun clearFile() {
+        store.clear()
+    }
+
+    /**
+     * Moves logs written by older SDK versions as a single JSON array into the store.
+     */
+    private fun migrateLegacyFile() {
+        val legacyFile = File(context.filesDir, legacyLogFileName)
+        if (!legacyFile.exists()) return
         try {
-            val file = File(context.filesDir, "crash_logs.json")
-            if (file.exists()) {
-                file.delete()
-            }
-        } catch (e: IOException) {
-            e.printStackTrace()
+            addLog(legacyFile.readText())
+        } catch (_: IOException) {
         }
+        legacyFile.delete()
+    }
+
+    companion object {
+        const val DEFAULT_CHUNK_BYTES = 64 * 1024
     }
 }
@@ -0,0 +1,89 @@
+package io.hyperswitch.logs
+
+import android.os.Handler
+import android.os.HandlerThread
+import android.os.Process
+
+/**
+ * Background flush engine for [HyperLogManager].
+ *
+ * Owns a dedicated [HandlerThread] on which debouncing, size-triggered and
+ * max-latency flushes are scheduled and [flush] is run, so log serialization
+ * never competes with the main thread for frame time.
+ *
+ * @param debounceMillis Quiet period after the last log before a flush
+ * @param maxLatencyMillis Upper bound on how long a log waits, however busy the stream is
+ * @param flush Sends the pending batch; always invoked on the flusher thread
+ */
+internal class LogFlusher(
+    debounceMillis: Long,
+    @Volatile var maxLatencyMillis: Long,
+    private val flush: () -> Unit
+) {
+
+    private val thread = HandlerThread(THREAD_NAME, Process.THREAD_PRIORITY_BACKGROUND).apply { start() }
+    private val handler = Handler(thread.looper)
+    private val debouncer = Debouncer(debounceMillis, thread.looper)
+    private var deadlineScheduled = false
+
+    private val deadline = Runnable {
+        deadlineScheduled = false
+        flushNow()
+    }
+
+    var debounceMillis: Long
+        get() = debouncer.delayInMillis
+        set(value) {
+            debouncer.delayInMillis = value
+        }
+
+    /**
+     * Called after a log was buffered; restarts the debounce window and arms the
+     * max-latency deadline if it is not already running.
+     */
+    fun onLogAdded() {
+        handler.post {
+            debouncer.debounce { flushNow() }
+            if (!deadlineScheduled) {
+                deadlineScheduled = true
+                handler.postDelayed(deadline, maxLatencyMillis)
+            }
+        }
+    }
+
+    /**
+     * Flushes as soon as the flusher thread is free.
+     */
+    fun requestFlush() {
+        handler.post { flushNow() }
+    }
+
+    /**
+     * Runs [action] on the flusher thread.
+     */
+    fun execute(action: () -> Unit) {
+        handler.post(action)
+    }
+
+    /**
+     * Runs [action] on the flusher thread after [delayMillis], replacing any pending run of it.
+     */
+    fun schedule(action: Runnable, delayMillis: Long) {
+        handler.removeCallbacks(action)
+        handler.postDelayed(action, delayMillis)
+    }
+
+    private fun flushNow() {
+        debouncer.cancel()
+        handler.removeCallbacks(deadline)
+        deadlineScheduled = false
+        try {
+            flush()
+        } catch (_: Exception) {
+        }
+    }
+
+    private companion object {
+        const val THREAD_NAME = "hs-log-flusher"
+    }
+}
@@ -0,0 +1,261 @@
+package io.hyperswitch.logs
+
+import java.io.DataInputStream
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.util.zip.CRC32
+
+/**
+ * Append-only, length-prefixed record journal used as the on-disk log store.
+ *
+ * Each record is stored as `[length:int][crc32:int][payload]`, so appending never
+ * reads or rewrites what is already on disk. A record torn by a process kill is
+ * detected on read and truncated away, keeping every record written before it.
+ *
+ * @param file The journal file
+ * @param maxBytes Size cap; once exceeded the oldest records are dropped
+ */
+class LogJournal(
+    private val file: File,
+    private val maxBytes: Long = DEFAULT_MAX_BYTES
+) {
+
+    private val lock = Any()
+
+    /**
+     * Incremented whenever records are removed from the head of the journal,
+     * which invalidates offsets handed out before the compaction.
+     */
+    @Volatile
+    var generation: Int = 0
+        private set
+
+    /**
+     * A bounded run of records read from the head of the journal.
+     *
+     * @property records The raw record payloads, oldest first
+     * @property endOffset Offset just past the last record in this chunk
+     * @property generation Journal generation the offsets belong to
+     */
+    class Chunk(val records: List<ByteArray>, val endOffset: Long, val generation: Int) {
+        /** The journal this chunk was read from. */
+        internal var journal: LogJournal? = null
+    }
+
+    /**
+     * Appends a single record to the end of the journal.
+     *
+     * @param payload The record payload
+     * @return `true` if the record was written
+     */
+    fun append(payload: ByteArray): Boolean = append(listOf(payload))
+
+    /**
+     * Appends several records with a single write, dropping the oldest records
+     * first if the journal would grow past [maxBytes].
+     *
+     * @param payloads The record payloads, in order
+     * @return `true` if the records were written
+     */
+    fun append(payloads: List<ByteArray>): Boolean {
+        val records = payloads.filter { it.isNotEmpty() && it.size <= MAX_RECORD_BYTES }
+        if (records.isEmpty()) return false
+        val buffer = ByteBuffer.allocate(records.sumOf { HEADER_BYTES + it.size })
+        records.forEach { payload ->
+            buffer.putInt(payload.size)
+            buffer.putInt(checksum(payload))
+            buffer.put(payload)
+        }
+
+        synchronized(lock) {
+            return try {
+                if (file.length() + buffer.capacity() > maxBytes) {
+                    trimHead(maxBytes * 3 / 4 - buffer.capacity())
+                }
+                // The app's data can be cleared while the process keeps running.
+                if (!file.exists()) file.parentFile?.mkdirs()
+                FileOutputStream(file, true).use { it.write(buffer.array()) }
+                true
+            } catch (_: IOException) {
+                false
+            }
+        }
+    }
+
+    /**
+     * Reads records from the head of the journal until [maxChunkBytes] of payload
+     * has been collected. A torn trailing record is truncated from the file.
+     *
+     * @param maxChunkBytes Upper bound for the total payload size of the chunk
+     * @return The chunk, or `null` if the journal is empty
+     */
+    fun readChunk(maxChunkBytes: Int): Chunk? {
+        synchronized(lock) {
+            val records = mutableListOf<ByteArray>()
+            var size = 0
+            val end = scan { _, payload ->
+                if (records.isNotEmpty() && size + payload.size > maxChunkBytes) {
+                    false
+                } else {
+                    records.add(payload)
+                    size += payload.size
+                    true
+                }
+            }
+            return if (records.isEmpty()) null else Chunk(records, end, generation).also { it.journal = this }
+        }
+    }
+
+    /**
+     * Visits every intact record in the journal, oldest first.
+     *
+     * @param action Receives each payload; return `false` to stop early
+     */
+    fun forEachRecord(action: (ByteArray) -> Boolean) {
+        synchronized(lock) {
+            scan { _, payload -> action(payload) }
+        }
+    }
+
+    /**
+     * Removes every record before [offset], typically after the chunk ending there
+     * was uploaded. Ignored if the journal was compacted since the chunk was read.
+     */
+    fun discardUpTo(offset: Long, generation: Int) {
+        synchronized(lock) {
+            if (generation != this.generation) return
+            try {
+                dropHead(offset)
+            } catch (_: IOException) {
+            }
+        }
+    }
+
+    /**
+     * Drops the oldest records until at most [targetBytes] remain.
+     */
+    fun trimTo(targetBytes: Long) {
+        synchronized(lock) {
+            try {
+                trimHead(targetBytes)
+            } catch (_: IOException) {
+            }
+        }
+    }
+
+    fun isEmpty(): Boolean = synchronized(lock) { !file.exists() || file.length() == 0L }
+
+    fun sizeBytes(): Long = synchronized(lock) { if (file.exists()) file.length() else 0L }
+
+    fun clear() {
+        synchronized(lock) {
+            if (file.exists()) file.delete()
+            generation++
+        }
+    }
+
+    /**
+     * Walks the journal from the start, handing each intact record to [action].
+     * Stops at the first torn or corrupt record and truncates the file there.
+     *
+     * @return Offset just past the last record accepted by [action]
+     */
+    private fun scan(action: (offset: Long, payload: ByteArray) -> Boolean): Long {
+        if (!file.exists()) return 0L
+        val length = file.length()
+        var offset = 0L
+        var stopped = false
+        try {
+            DataInputStream(FileInputStream(file).buffered()).use { input ->
+                while (offset + HEADER_BYTES <= length) {
+                    val size = input.readInt()
+                    val crc = input.readInt()
+                    if (size <= 0 || size > MAX_RECORD_BYTES || offset + HEADER_BYTES + size > length) break
+                    val payload = ByteArray(size)
+                    input.readFully(payload)
+                    if (checksum(payload) != crc) break
+                    if (!action(offset, payload)) {
+                        stopped = true
+                        break
+                    }
+                    offset += HEADER_BYTES + size
+                }
+            }
+        } catch (_: IOException) {
+            return offset
+        }
+        if (!stopped && offset < length) {
+            truncate(offset)
+        }
+        return offset
+    }
+
+    private fun truncate(length: Long) {
+        try {
+            RandomAccessFile(file, "rw").use { it.setLength(length) }
+        } catch (_: IOException) {
+        }
+    }
+
+    /**
+     * Drops the oldest records until at most [targetBytes] remain.
+     */
+    private fun trimHead(targetBytes: Long) {
+        val length = file.length()
+        if (length <= 0L) return
+        var cut = length
+        var remaining = length
+        scan { offset, payload ->
+            if (remaining <= targetBytes) {
+                cut = offset
+                false
+            } else {
+                remaining -= HEADER_BYTES + payload.size
+                true
+            }
+        }
+        dropHead(cut)
+    }
+
+    private fun dropHead(offset: Long) {
+        if (offset <= 0L || !file.exists()) return
+        val length = file.length()
+        if (offset >= length) {
+            file.delete()
+        } else {
+            val temp = File(file.parentFile, file.name + ".tmp")
+            RandomAccessFile(file, "r").use { source ->
+                source.seek(offset)
+                FileOutputStream(temp).use { target ->
+                    val buffer = ByteArray(8192)
+                    while (true) {
+                        val read = source.read(buffer)
+                        if (read < 0) break
+                        target.write(buffer, 0, read)
+                    }
+                }
+            }
+            if (!temp.renameTo(file)) {
+                temp.delete()
+                return
+            }
+        }
+        generation++
+    }
+
+    private fun checksum(payload: ByteArray): Int {
+        val crc = CRC32()
+        crc.update(payload)
+        return crc.value.toInt()
+    }
+
+    companion object {
+        const val DEFAULT_MAX_BYTES = 1024L * 1024L
+        private const val HEADER_BYTES = 8
+        private const val MAX_RECORD_BYTES = 256 * 1024
+    }
+}
@@ -0,0 +1,96 @@
+package io.hyperswitch.logs
+
+import okio.BufferedSink
+
+/**
+ * Minimal JSON writer that emits directly into an Okio [BufferedSink], so logs can be
+ * serialized without building a JSONObject or intermediate Strings per log.
+ */
+internal class LogJsonWriter(private val sink: BufferedSink) {
+
+    private var needsComma = false
+
+    fun beginObject() = apply {
+        separator()
+        sink.writeByte('{'.code)
+        needsComma = false
+    }
+
+    fun endObject() = apply {
+        sink.writeByte('}'.code)
+        needsComma = true
+    }
+
+    fun beginArray() = apply {
+        separator()
+        sink.writeByte('['.code)
+        needsComma = false
+    }
+
+    fun endArray() = apply {
+        sink.writeByte(']'.code)
+        needsComma = true
+    }
+
+    fun name(name: String) = apply {
+        separator()
+        string(name)
+        sink.writeByte(':'.code)
+        needsComma = false
+    }
+
+    fun value(value: String) = apply {
+        separator()
+        string(value)
+        needsComma = true
+    }
+
+    fun value(value: Long) = apply {
+        separator()
+        sink.writeDecimalLong(value)
+        needsComma = true
+    }
+
+    fun field(name: String, value: String) = name(name).value(value)
+
+    fun field(name: String, value: Long) = name(name).value(value)
+
+    private fun separator() {
+        if (needsComma) sink.writeByte(','.code)
+    }
+
+    private fun string(value: String) {
+        sink.writeByte('"'.code)
+        var last = 0
+        val length = value.length
+        for (i in 0 until length) {
+            val c = value[i]
+            val replacement = when {
+                c == '"' -> "\\\""
+                c == '\\' -> "\\\\"
+                c == '\n' -> "\\n"
+                c == '\r' -> "\\r"
+                c == '\t' -> "\\t"
+                c < ' ' || c == '\u2028' || c == '\u2029' -> null
+                else -> continue
+            }
+            if (last < i) sink.writeUtf8(value, last, i)
+            if (replacement != null) {
+                sink.writeUtf8(replacement)
+            } else {
+                sink.writeUtf8("\\u")
+                sink.writeUtf8(HEX_DIGITS, c.code shr 12 and 0xf, (c.code shr 12 and 0xf) + 1)
+                sink.writeUtf8(HEX_DIGITS, c.code shr 8 and 0xf, (c.code shr 8 and 0xf) + 1)
+                sink.writeUtf8(HEX_DIGITS, c.code shr 4 and 0xf, (c.code shr 4 and 0xf) + 1)
+                sink.writeUtf8(HEX_DIGITS, c.code and 0xf, (c.code and 0xf) + 1)
+            }
+            last = i + 1
+        }
+        if (last < length) sink.writeUtf8(value, last, length)
+        sink.writeByte('"'.code)
+    }
+
+    private companion object {
+        const val HEX_DIGITS = "0123456789abcdef"
+    }
+}
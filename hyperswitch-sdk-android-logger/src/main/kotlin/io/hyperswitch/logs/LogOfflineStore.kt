@@ -0,0 +1,146 @@
+package io.hyperswitch.logs
+
+import android.content.Context
+import java.io.File
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Persistent store for logs that could not be delivered, bounded by a byte budget.
+ *
+ * Records are kept in one [LogJournal] per severity tier. When the budget is exceeded
+ * the oldest DEBUG logs are evicted first, then INFO, then WARNING; ERROR logs and
+ * crash events are retained longest. Logs are read back most severe tier first, in
+ * bounded chunks, so storage and upload cost stay predictable however long the
+ * device was offline.
+ *
+ * @param directory Directory holding the tier journals
+ * @param maxBytes Byte budget shared by all tiers
+ */
+class LogOfflineStore(
+    directory: File,
+    private val maxBytes: Long = DEFAULT_MAX_BYTES
+) {
+
+    private val lock = Any()
+
+    /** Indexed by tier, in eviction order. */
+    private val journals = TIER_NAMES.map { LogJournal(File(directory, "logs_$it.journal"), maxBytes) }
+
+    init {
+        directory.mkdirs()
+    }
+
+    /**
+     * Stores serialized logs, evicting lower tiers first if the budget is exceeded.
+     *
+     * @param records Serialized JSON objects, oldest first
+     */
+    fun add(records: List<String>) {
+        if (records.isEmpty()) return
+        synchronized(lock) {
+            records.groupBy { tierOf(it) }.forEach { (tier, tierRecords) ->
+                journals[tier].append(tierRecords.map { it.toByteArray(Charsets.UTF_8) })
+            }
+            enforceBudget()
+        }
+    }
+
+    /**
+     * Reads the oldest logs of the most severe non-empty tier, bounded by [maxChunkBytes].
+     *
+     * @return The chunk, or `null` if the store is empty
+     */
+    fun readChunk(maxChunkBytes: Int): LogJournal.Chunk? {
+        synchronized(lock) {
+            journals.asReversed().forEach { journal ->
+                journal.readChunk(maxChunkBytes)?.let { return it }
+            }
+            return null
+        }
+    }
+
+    /**
+     * Removes the logs of a chunk once it has been delivered. Ignored if the chunk's
+     * tier was trimmed since it was read; the chunk is then read and sent again.
+     */
+    fun discard(chunk: LogJournal.Chunk) {
+        chunk.journal?.discardUpTo(chunk.endOffset, chunk.generation)
+    }
+
+    /**
+     * Visits every stored log, most severe tier first.
+     *
+     * @param action Receives each payload; return `false` to stop early
+     */
+    fun forEachRecord(action: (ByteArray) -> Boolean) {
+        synchronized(lock) {
+            var continueVisiting = true
+            journals.asReversed().forEach { journal ->
+                if (!continueVisiting) return
+                journal.forEachRecord { record ->
+                    action(record).also { continueVisiting = it }
+                }
+            }
+        }
+    }
+
+    fun isEmpty(): Boolean = synchronized(lock) { journals.all { it.isEmpty() } }
+
+    fun sizeBytes(): Long = synchronized(lock) { journals.sumOf { it.sizeBytes() } }
+
+    fun clear() {
+        synchronized(lock) {
+            journals.forEach { it.clear() }
+        }
+    }
+
+    /**
+     * Trims down to three quarters of [maxBytes], oldest first within a tier, taking
+     * from the least severe tiers first, so the store does not trim on every append.
+     */
+    private fun enforceBudget() {
+        var total = journals.sumOf { it.sizeBytes() }
+        if (total <= maxBytes) return
+        val target = maxBytes * 3 / 4
+        for (journal in journals) {
+            val excess = total - target
+            if (excess <= 0) break
+            val size = journal.sizeBytes()
+            journal.trimTo((size - excess).coerceAtLeast(0L))
+            total += journal.sizeBytes() - size
+        }
+    }
+
+    /**
+     * Classifies a serialized log by looking for its `log_type` and `event_name` fields,
+     * without parsing it.
+     */
+    private fun tierOf(record: String): Int = when {
+        record.contains("\"event_name\":\"${EventName.CRASH_EVENT.name}\"") -> TIER_ERROR
+        record.contains("\"log_type\":\"${LogType.ERROR.name}\"") -> TIER_ERROR
+        record.contains("\"log_type\":\"${LogType.WARNING.name}\"") -> TIER_WARNING
+        record.contains("\"log_type\":\"${LogType.DEBUG.name}\"") -> TIER_DEBUG
+        else -> TIER_INFO
+    }
+
+    companion object {
+        const val DEFAULT_MAX_BYTES = 2L * 1024L * 1024L
+        private const val DIRECTORY_NAME = "hs_log_store"
+        private const val TIER_DEBUG = 0
+        private const val TIER_INFO = 1
+        private const val TIER_WARNING = 2
+        private const val TIER_ERROR = 3
+        private val TIER_NAMES = listOf("debug", "info", "warning", "error")
+
+        private val instances = ConcurrentHashMap<String, LogOfflineStore>()
+
+        /**
+         * Returns the app's shared store, so every writer goes through the same locks.
+         */
+        @JvmStatic
+        fun get(context: Context): LogOfflineStore {
+            val directory = File(context.applicationContext.filesDir, DIRECTORY_NAME)
+            return instances.computeIfAbsent(directory.absolutePath) { LogOfflineStore(directory) }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package io.hyperswitch.logs
+
+import kotlin.random.Random
+
+/**
+ * Capped exponential backoff with jitter for failed log uploads.
+ *
+ * @property initialDelayMillis Delay before the first retry
+ * @property maxDelayMillis Upper bound for any single delay
+ * @property multiplier Growth factor between consecutive attempts
+ * @property jitter Fraction of the delay that is randomised, between 0 and 1
+ * @property maxAttempts Attempts after which a batch is spilled to disk instead of retried
+ */
+data class LogRetryPolicy(
+    val initialDelayMillis: Long = 2_000L,
+    val maxDelayMillis: Long = 5 * 60_000L,
+    val multiplier: Double = 2.0,
+    val jitter: Double = 0.2,
+    val maxAttempts: Int = 5
+) {
+
+    /**
+     * Returns the delay before retry number [attempt], counting from 1.
+     */
+    fun delayMillis(attempt: Int, random: Random = Random.Default): Long {
+        var delay = initialDelayMillis.toDouble()
+        repeat((attempt - 1).coerceAtLeast(0)) {
+            delay = (delay * multiplier).coerceAtMost(maxDelayMillis.toDouble())
+        }
+        val spread = delay * jitter
+        val jittered = delay - spread + random.nextDouble() * spread * 2
+        return jittered.toLong().coerceIn(0L, maxDelayMillis)
+    }
+}
@@ -0,0 +1,106 @@
+package io.hyperswitch.logs
+
+import io.hyperswitch.networking.HttpStatusException
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+/**
+ * Delivers log batches through [uploader], retrying transient failures with
+ * [LogRetryPolicy] and spilling batches that keep failing to [offlineStore].
+ *
+ * Network errors, timeouts, 408, 429 and 5xx responses are retried; any other
+ * failure drops the batch since resending it cannot succeed.
+ *
+ * @param uploader Performs a single upload attempt
+ * @param policy Backoff configuration
+ * @param executor Executor used to schedule retries
+ * @param random Source of jitter
+ */
+class LogRetryScheduler(
+    private val uploader: LogUploader,
+    private val policy: LogRetryPolicy = LogRetryPolicy(),
+    private val executor: ScheduledExecutorService = defaultExecutor(),
+    private val random: Random = Random.Default
+) {
+
+    /**
+     * Performs a single upload attempt and reports its outcome.
+     */
+    fun interface LogUploader {
+        fun upload(batch: LogUploadBatch, callback: (Result<String>) -> Unit)
+    }
+
+    @Volatile
+    var offlineStore: LogOfflineStore? = null
+
+    private val inFlight = ConcurrentHashMap.newKeySet<String>()
+
+    /**
+     * Uploads [batch] now and keeps retrying it until it is delivered, rejected or spilled.
+     * A batch whose idempotency key is already being retried is ignored.
+     */
+    fun submit(batch: LogUploadBatch) {
+        if (!inFlight.add(batch.idempotencyKey)) return
+        executor.execute { attempt(batch) }
+    }
+
+    private fun attempt(batch: LogUploadBatch) {
+        batch.attempt++
+        try {
+            uploader.upload(batch) { result ->
+                result
+                    .onSuccess { complete(batch) }
+                    .onFailure { onFailure(batch, it) }
+            }
+        } catch (e: Exception) {
+            onFailure(batch, e)
+        }
+    }
+
+    private fun onFailure(batch: LogUploadBatch, error: Throwable) {
+        if (!isRetryable(error)) {
+            complete(batch)
+            return
+        }
+        if (batch.attempt >= policy.maxAttempts) {
+            if (!batch.persisted) spill(batch)
+            inFlight.remove(batch.idempotencyKey)
+            return
+        }
+        executor.schedule(
+            { attempt(batch) },
+            policy.delayMillis(batch.attempt, random),
+            TimeUnit.MILLISECONDS
+        )
+    }
+
+    private fun spill(batch: LogUploadBatch) {
+        val store = offlineStore ?: return
+        try {
+            store.add(batch.records().map { String(it, Charsets.UTF_8) })
+        } catch (_: Exception) {
+        }
+    }
+
+    private fun complete(batch: LogUploadBatch) {
+        inFlight.remove(batch.idempotencyKey)
+        batch.onCompleted()
+    }
+
+    private fun isRetryable(error: Throwable): Boolean = when (error) {
+        is HttpStatusException -> error.statusCode == 408 || error.statusCode == 429 || error.statusCode >= 500
+        is IOException -> true
+        else -> error.cause is IOException
+    }
+
+    companion object {
+        private fun defaultExecutor(): ScheduledExecutorService =
+            Executors.newSingleThreadScheduledExecutor { runnable ->
+                Thread(runnable, "hs-log-retry").apply { isDaemon = true }
+            }
+    }
+}
@@ -0,0 +1,119 @@
+package io.hyperswitch.logs
+
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Bounded multi-producer, single-consumer buffer for pending logs.
+ *
+ * Producers never block or take a lock. DEBUG logs and all other logs live in separate
+ * lanes sharing one [capacity] budget, and overflow is resolved in this order:
+ * the oldest DEBUG log is evicted; if there is none, an incoming DEBUG log is dropped;
+ * otherwise the oldest remaining log is evicted.
+ *
+ * @param capacity Maximum number of buffered logs
+ */
+internal class LogRingBuffer(private val capacity: Int) {
+
+    private class Entry(val sequence: Long, val log: HSLog, val bytes: Int)
+
+    private val debugLane = BoundedLogQueue<Entry>(capacity)
+    private val mainLane = BoundedLogQueue<Entry>(capacity)
+    private val size = AtomicInteger()
+    private val bytes = AtomicLong()
+    private val sequence = AtomicLong()
+    private val dropped = AtomicLong()
+
+    /**
+     * Number of logs lost to the overflow policy since creation.
+     */
+    val droppedCount: Long
+        get() = dropped.get()
+
+    /**
+     * Estimated serialized size of the buffered logs.
+     */
+    val sizeBytes: Long
+        get() = bytes.get()
+
+    /**
+     * Buffers [log], applying the overflow policy if the buffer is full.
+     *
+     * @return The number of buffered logs after the call, or -1 if [log] was dropped
+     */
+    fun offer(log: HSLog): Int {
+        val isDebug = log.logType == LogType.DEBUG
+        if (size.incrementAndGet() > capacity) {
+            val evicted = debugLane.poll(waitForPending = true) ?: if (isDebug) null else mainLane.poll()
+            dropped.incrementAndGet()
+            size.decrementAndGet()
+            if (evicted == null) return -1
+            bytes.addAndGet(-evicted.bytes.toLong())
+        }
+        val lane = if (isDebug) debugLane else mainLane
+        val entry = Entry(sequence.getAndIncrement(), log, log.estimatedSizeBytes())
+        if (!lane.offer(entry)) {
+            size.decrementAndGet()
+            dropped.incrementAndGet()
+            return -1
+        }
+        bytes.addAndGet(entry.bytes.toLong())
+        return size.get()
+    }
+
+    /**
+     * Removes every buffered log, returned in the order they were offered.
+     * Must only be called from the consumer thread.
+     */
+    fun drain(): List<HSLog> {
+        val debug = drainLane(debugLane)
+        val main = drainLane(mainLane)
+        return merge(debug, main)
+    }
+
+    /**
+     * Discards every buffered DEBUG log and counts it as dropped, releasing memory
+     * without losing more severe logs. Must only be called from the consumer thread.
+     *
+     * @return The number of logs discarded
+     */
+    fun dropDebug(): Int {
+        val discarded = drainLane(debugLane).size
+        dropped.addAndGet(discarded.toLong())
+        return discarded
+    }
+
+    /**
+     * Copies the buffered logs without removing them, in the order they were offered.
+     */
+    fun snapshot(): List<HSLog> = merge(debugLane.snapshot(), mainLane.snapshot())
+
+    fun isEmpty(): Boolean = size.get() <= 0
+
+    private fun drainLane(lane: BoundedLogQueue<Entry>): List<Entry> {
+        val entries = mutableListOf<Entry>()
+        while (true) {
+            val entry = lane.poll() ?: break
+            size.decrementAndGet()
+            bytes.addAndGet(-entry.bytes.toLong())
+            entries.add(entry)
+        }
+        return entries
+    }
+
+    private fun merge(first: List<Entry>, second: List<Entry>): List<HSLog> {
+        val result = ArrayList<HSLog>(first.size + second.size)
+        var i = 0
+        var j = 0
+        while (i < first.size || j < second.size) {
+            result.add(
+                if (j >= second.size || (i < first.size && first[i].sequence < second[j].sequence)) {
+                    first[i++].log
+                } else {
+                    second[j++].log
+                }
+            )
+        }
+        return result
+    }
+}
@@ -0,0 +1,117 @@
+package io.hyperswitch.logs
+
+import org.json.JSONObject
+import kotlin.random.Random
+
+/**
+ * Token bucket limit for a single [EventName].
+ *
+ * @property eventsPerSecond Sustained rate at which tokens are refilled
+ * @property burst Maximum number of tokens, i.e. events accepted back to back
+ */
+data class LogRateLimit(val eventsPerSecond: Double, val burst: Int)
+
+/**
+ * Sampling and rate limiting rules applied before a log is buffered.
+ *
+ * ERROR logs and [EventName.CRASH_EVENT] are always kept, whatever the rules say.
+ *
+ * @property sampleRates Probability of keeping a log of the given type; types not listed are kept
+ * @property rateLimits Token bucket per event name; names not listed are not limited
+ */
+data class LogSamplingRules(
+    val sampleRates: Map<LogType, Double> = emptyMap(),
+    val rateLimits: Map<EventName, LogRateLimit> = DEFAULT_RATE_LIMITS
+) {
+
+    companion object {
+
+        val DEFAULT_RATE_LIMITS = mapOf(
+            EventName.CONSOLE_LOG to LogRateLimit(eventsPerSecond = 5.0, burst = 20),
+            EventName.WEBVIEW to LogRateLimit(eventsPerSecond = 5.0, burst = 20),
+            EventName.HYPER_OTA_EVENT to LogRateLimit(eventsPerSecond = 5.0, burst = 20)
+        )
+
+        /**
+         * Parses rules delivered through remote config, for example:
+         * `{"sample_rates":{"DEBUG":0.1},"rate_limits":{"CONSOLE_LOG":{"per_second":2,"burst":10}}}`.
+         * Unknown log types and event names are ignored; sections that are absent keep their defaults.
+         */
+        fun fromJson(json: JSONObject): LogSamplingRules {
+            val defaults = LogSamplingRules()
+            val sampleRates = json.optJSONObject("sample_rates")?.let { rates ->
+                rates.keys().asSequence().mapNotNull { key ->
+                    val type = LogType.entries.find { it.name == key.uppercase() } ?: return@mapNotNull null
+                    type to rates.optDouble(key, 1.0).coerceIn(0.0, 1.0)
+                }.toMap()
+            } ?: defaults.sampleRates
+            val rateLimits = json.optJSONObject("rate_limits")?.let { limits ->
+                limits.keys().asSequence().mapNotNull { key ->
+                    val eventName = EventName.entries.find { it.name == key.uppercase() } ?: return@mapNotNull null
+                    val limit = limits.optJSONObject(key) ?: return@mapNotNull null
+                    eventName to LogRateLimit(
+                        eventsPerSecond = limit.optDouble("per_second", 1.0),
+                        burst = limit.optInt("burst", 1)
+                    )
+                }.toMap()
+            } ?: defaults.rateLimits
+            return LogSamplingRules(sampleRates, rateLimits)
+        }
+    }
+}
+
+/**
+ * Whether a log is exempt from every filter: ERROR logs and [EventName.CRASH_EVENT] always pass.
+ */
+internal fun isAlwaysKept(logType: LogType, eventName: EventName?): Boolean =
+    logType == LogType.ERROR || eventName == EventName.CRASH_EVENT
+
+/**
+ * Decides, from the log type and event name alone, whether a log is worth building and buffering.
+ */
+internal class LogSampler(
+    rules: LogSamplingRules = LogSamplingRules(),
+    private val random: Random = Random.Default,
+    private val clock: () -> Long = System::nanoTime
+) {
+
+    private class TokenBucket(private val limit: LogRateLimit, now: Long) {
+        private var tokens = limit.burst.toDouble()
+        private var lastRefill = now
+
+        @Synchronized
+        fun tryAcquire(now: Long): Boolean {
+            val elapsedSeconds = (now - lastRefill) / 1_000_000_000.0
+            tokens = (tokens + elapsedSeconds * limit.eventsPerSecond).coerceAtMost(limit.burst.toDouble())
+            lastRefill = now
+            if (tokens < 1.0) return false
+            tokens -= 1.0
+            return true
+        }
+    }
+
+    @Volatile
+    private var sampleRates = DoubleArray(LogType.entries.size) { 1.0 }
+
+    @Volatile
+    private var buckets = arrayOfNulls<TokenBucket>(EventName.entries.size)
+
+    init {
+        update(rules)
+    }
+
+    fun update(rules: LogSamplingRules) {
+        val now = clock()
+        sampleRates = DoubleArray(LogType.entries.size) { rules.sampleRates[LogType.entries[it]] ?: 1.0 }
+        buckets = Array(EventName.entries.size) { index ->
+            rules.rateLimits[EventName.entries[index]]?.let { TokenBucket(it, now) }
+        }
+    }
+
+    fun shouldKeep(logType: LogType, eventName: EventName): Boolean {
+        if (isAlwaysKept(logType, eventName)) return true
+        val rate = sampleRates[logType.ordinal]
+        if (rate < 1.0 && random.nextDouble() >= rate) return false
+        return buckets[eventName.ordinal]?.tryAcquire(clock()) ?: true
+    }
+}
@@ -0,0 +1,82 @@
+package io.hyperswitch.logs
+
+import okhttp3.RequestBody
+import java.security.MessageDigest
+import java.util.UUID
+
+/**
+ * A batch of logs handed to [LogRetryScheduler].
+ *
+ * Every batch carries an idempotency key that stays the same across its retries, so the
+ * backend can drop duplicates when a response is lost after the batch was already stored.
+ * Chunks read back from disk are keyed by their contents, so re-reading the same chunk
+ * after a restart keeps its key. A batch spilled to disk is re-chunked and re-keyed, so
+ * one whose last response was lost before the spill may be stored twice.
+ *
+ * @property idempotencyKey Stable identifier of this batch
+ * @property persisted Whether the records already live on disk and must not be spilled again
+ * @property onCompleted Invoked once the batch was delivered or permanently rejected
+ */
+class LogUploadBatch private constructor(
+    val idempotencyKey: String,
+    private val logs: List<HSLog>?,
+    private val enrichment: LogEnrichment?,
+    private val records: List<ByteArray>?,
+    val persisted: Boolean,
+    internal val onCompleted: () -> Unit
+) {
+
+    /**
+     * Number of upload attempts made so far.
+     */
+    var attempt: Int = 0
+        internal set
+
+    /**
+     * Whether this batch can be sent as [LogUploadFormat.ENVELOPE]. Records restored from
+     * disk are already serialized and always go out as [LogUploadFormat.ARRAY].
+     */
+    val supportsEnvelope: Boolean
+        get() = logs != null
+
+    /**
+     * Serialized size of the batch, estimated for logs that are not serialized yet.
+     */
+    val sizeBytes: Long by lazy {
+        records?.sumOf { it.size.toLong() } ?: logs!!.sumOf { it.estimatedSizeBytes().toLong() }
+    }
+
+    fun body(format: LogUploadFormat = LogUploadFormat.ARRAY): RequestBody = when {
+        logs == null -> LogChunkRequestBody(records!!)
+        format == LogUploadFormat.ENVELOPE -> HSLogEnvelopeRequestBody(logs, enrichment)
+        else -> HSLogBatchRequestBody(logs, enrichment)
+    }
+
+    fun records(): List<ByteArray> = records ?: logs!!.map { it.toJson(enrichment).toByteArray(Charsets.UTF_8) }
+
+    companion object {
+
+        /**
+         * Creates a batch for logs collected in memory.
+         */
+        internal fun fromLogs(
+            logs: List<HSLog>,
+            enrichment: LogEnrichment?,
+            onCompleted: () -> Unit = {}
+        ): LogUploadBatch =
+            LogUploadBatch(UUID.randomUUID().toString(), logs, enrichment, null, false, onCompleted)
+
+        /**
+         * Creates a batch for a chunk of the crash log journal. The key is derived from
+         * the chunk contents so a re-read of the same chunk after a restart keeps it.
+         */
+        fun fromChunk(chunk: LogJournal.Chunk, onCompleted: () -> Unit): LogUploadBatch =
+            LogUploadBatch(contentKey(chunk.records), null, null, chunk.records, true, onCompleted)
+
+        private fun contentKey(records: List<ByteArray>): String {
+            val digest = MessageDigest.getInstance("SHA-256")
+            records.forEach { digest.update(it) }
+            return digest.digest().take(16).joinToString("") { "%02x".format(it) }
+        }
+    }
+}
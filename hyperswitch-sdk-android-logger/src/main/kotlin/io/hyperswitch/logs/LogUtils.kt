@@ -27,6 +27,13 @@ object LogUtils {
             "https://sandbox.hyperswitch.io/logs/sdk"
     }
 
+    /**
+     * Appends an API version segment to a logging endpoint, e.g. `.../logs/sdk/v2`.
+     */
+    fun getVersionedLoggingUrl(loggingEndPoint: String, version: String): String {
+        return loggingEndPoint.trimEnd('/') + "/" + version
+    }
+
     @Synchronized
     fun getOrCreateUniqueKey(context: Context, flow: String): String {
         try {
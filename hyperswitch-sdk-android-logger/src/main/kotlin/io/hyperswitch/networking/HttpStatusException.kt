@@ -0,0 +1,8 @@
+package io.hyperswitch.networking
+
+/**
+ * Failure reported by [HyperNetworking] when the server answered with a non-2xx status.
+ *
+ * @property statusCode The HTTP status code of the response
+ */
+class HttpStatusException(val statusCode: Int, message: String) : Exception(message)
@@ -0,0 +1,25 @@
+package io.hyperswitch.networking
+
+import okhttp3.CacheControl
+import okhttp3.RequestBody
+
+/**
+ * A request for the suspending [HyperNetworking] API.
+ *
+ * @param url Absolute URL
+ * @param method HTTP method, e.g. `GET` or `PUT`
+ * @param headers Extra request headers
+ * @param body Request body; `null` for methods without one
+ * @param priority Lane the request is scheduled in
+ * @param timeoutMillis Timeout for the whole call, overriding the client timeouts; `null` keeps them
+ * @param cacheControl Cache directives for the request; `null` follows the response headers
+ */
+data class HyperHttpRequest(
+    val url: String,
+    val method: String = "GET",
+    val headers: Map<String, String> = emptyMap(),
+    val body: RequestBody? = null,
+    val priority: RequestPriority = RequestPriority.NORMAL,
+    val timeoutMillis: Long? = null,
+    val cacheControl: CacheControl? = null
+)
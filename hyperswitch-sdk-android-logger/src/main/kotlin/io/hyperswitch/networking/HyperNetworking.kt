@@ -1,77 +1,527 @@
 package io.hyperswitch.networking
 
+import android.os.SystemClock
+import io.hyperswitch.logs.HyperMetrics
+import okhttp3.Cache
+import okhttp3.CacheControl
 import okhttp3.Call
 import okhttp3.Callback
+import okhttp3.ConnectionPool
+import okhttp3.Dispatcher
 import okhttp3.HttpUrl.Companion.toHttpUrl
+import okhttp3.HttpUrl.Companion.toHttpUrlOrNull
 import okhttp3.MediaType.Companion.toMediaType
 import okhttp3.OkHttpClient
 import okhttp3.Request
+import okhttp3.RequestBody
 import okhttp3.RequestBody.Companion.toRequestBody
 import okhttp3.Response
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.awaitCancellation
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.ensureActive
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlinx.coroutines.withContext
+import okio.Buffer
+import okio.BufferedSource
+import okio.blackholeSink
+import java.io.File
 import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReference
+import kotlin.coroutines.resumeWithException
 
 object HyperNetworking {
-    private val client = OkHttpClient.Builder()
-        .connectTimeout(15, TimeUnit.SECONDS)
-        .readTimeout(15, TimeUnit.SECONDS)
-        .writeTimeout(15, TimeUnit.SECONDS)
-        .build()
+    private const val DEFAULT_MAX_STALE_MILLIS = 24 * 60 * 60 * 1000L
+
+    private val lock = Any()
+    /**
+     * Configuration of the current client, as last passed to [configure].
+     */
+    @Volatile
+    internal var config = HyperNetworkingConfig()
+        private set
+    @Volatile
+    private var client = buildClient(config)
+    private val scheduler = PriorityRequestScheduler(config.maxConcurrentRequests)
+    private val revalidationScope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+    private val revalidating = ConcurrentHashMap.newKeySet<String>()
+
+    /**
+     * Replaces the shared client with one tuned by [config]. Calls already in flight
+     * finish on the previous client.
+     */
+    fun configure(config: HyperNetworkingConfig) {
+        val previous = synchronized(lock) {
+            val previous = client
+            this.config = config
+            client = buildClient(config)
+            previous
+        }
+        scheduler.setLimits(config.maxConcurrentRequests)
+        previous.connectionPool.evictAll()
+        if (previous.cache?.directory != config.cacheDirectory) closeCacheWhenIdle(previous)
+    }
+
+    /**
+     * Closes the cache of [client] once its calls have finished; closing it earlier would
+     * fail calls still reading from or writing to it.
+     */
+    private fun closeCacheWhenIdle(client: OkHttpClient) {
+        val cache = client.cache ?: return
+        val close = Runnable {
+            try {
+                cache.close()
+            } catch (_: IOException) {
+            }
+        }
+        client.dispatcher.idleCallback = close
+        if (client.dispatcher.runningCallsCount() == 0 && client.dispatcher.queuedCallsCount() == 0) close.run()
+    }
+
+    /**
+     * Enables the HTTP disk cache used by [getStaleWhileRevalidate], keeping the rest of
+     * the current configuration. Does nothing if the cache already uses [directory].
+     *
+     * @param directory Directory owned by the cache, e.g. under `Context.cacheDir`
+     * @param maxBytes Size bound of the cache
+     */
+    fun enableCache(directory: File, maxBytes: Long = config.cacheMaxBytes) {
+        val current = config
+        if (current.cacheDirectory == directory && current.cacheMaxBytes == maxBytes) return
+        configure(current.copy(cacheDirectory = directory, cacheMaxBytes = maxBytes))
+    }
+
+    /**
+     * Returns a cached response for [urlString] immediately when one no older than
+     * [maxStaleMillis] exists. Once the cached copy is older than its `max-age` it is also
+     * revalidated in the background with a conditional request (`If-None-Match` /
+     * `If-Modified-Since`), so the next call sees fresh data.
+     * Without a usable cached copy this waits for the network like [get].
+     * Requires [enableCache]; otherwise every call goes to the network.
+     *
+     * @throws HttpStatusException for non-2xx responses
+     * @throws IOException for network failures and timeouts
+     */
+    suspend fun getStaleWhileRevalidate(
+        urlString: String,
+        headers: Map<String, String> = emptyMap(),
+        maxStaleMillis: Long = DEFAULT_MAX_STALE_MILLIS,
+        priority: RequestPriority = RequestPriority.NORMAL
+    ): String {
+        val request = HyperHttpRequest(urlString, "GET", headers, priority = priority)
+        if (client.cache != null) {
+            val cacheOnly = CacheControl.Builder()
+                .onlyIfCached()
+                .maxStale(maxStaleMillis.coerceAtMost(Int.MAX_VALUE.toLong()).toInt(), TimeUnit.MILLISECONDS)
+                .build()
+            val cached = try {
+                await(request.copy(cacheControl = cacheOnly)).use { response ->
+                    val body = withContext(Dispatchers.IO) { response.body?.string().orEmpty() }
+                    if (isStale(response)) revalidate(request)
+                    body
+                }
+            } catch (_: HttpStatusException) {
+                null
+            }
+            if (cached != null) return cached
+        }
+        return execute(request)
+    }
+
+    /**
+     * Returns whether a cached [response] is older than its `max-age`. Responses without
+     * one are always treated as stale.
+     */
+    private fun isStale(response: Response): Boolean {
+        val maxAgeSeconds = response.cacheControl.maxAgeSeconds
+        if (maxAgeSeconds < 0) return true
+        val ageMillis = System.currentTimeMillis() - response.receivedResponseAtMillis
+        return ageMillis >= TimeUnit.SECONDS.toMillis(maxAgeSeconds.toLong())
+    }
+
+    private fun revalidate(request: HyperHttpRequest) {
+        if (!revalidating.add(request.url)) return
+        HyperMetrics.counter(HyperMetrics.HTTP_CACHE_REVALIDATIONS).increment()
+        val revalidation = request.copy(
+            priority = RequestPriority.BACKGROUND,
+            cacheControl = CacheControl.Builder().maxAge(0, TimeUnit.SECONDS).build()
+        )
+        revalidationScope.launch {
+            try {
+                stream(revalidation) { it.readAll(blackholeSink()) }
+            } catch (_: Exception) {
+            } finally {
+                revalidating.remove(request.url)
+            }
+        }
+    }
+
+    /**
+     * Resolves DNS and opens pooled TLS connections to the origins of [endpoints] in the
+     * background, so the first real request to each origin skips the handshake.
+     * Each origin receives one HEAD request in the [RequestPriority.BACKGROUND] lane,
+     * counted in [HyperMetrics.HTTP_REQUESTS]. Its response is discarded and its status
+     * is not reported as a failure, since only the connection matters.
+     *
+     * @param endpoints URLs whose origins should be pre-connected; invalid URLs are ignored
+     */
+    fun warmup(endpoints: Collection<String>) {
+        endpoints
+            .mapNotNull { it.toHttpUrlOrNull()?.resolve("/") }
+            .distinctBy { Triple(it.scheme, it.host, it.port) }
+            .forEach { origin ->
+                val request = Request.Builder().url(origin).head().build()
+                scheduler.submit(RequestPriority.BACKGROUND) { done ->
+                    try {
+                        HyperMetrics.counter(HyperMetrics.HTTP_REQUESTS).increment()
+                        client.newCall(request).enqueue(object : Callback {
+                            override fun onFailure(call: Call, e: IOException) {
+                                done()
+                                HyperMetrics.counter(HyperMetrics.HTTP_FAILURES).increment()
+                            }
+
+                            override fun onResponse(call: Call, response: Response) {
+                                response.close()
+                                done()
+                            }
+                        })
+                    } catch (_: Exception) {
+                        done()
+                    }
+                }
+            }
+    }
+
+    /**
+     * Connection pool of the current client.
+     */
+    internal val connectionPool: ConnectionPool
+        get() = client.connectionPool
+
+    /**
+     * Dispatcher of the current client, holding the calls already handed to OkHttp.
+     */
+    internal val dispatcher: Dispatcher
+        get() = client.dispatcher
+
+    private fun buildClient(config: HyperNetworkingConfig): OkHttpClient {
+        val dispatcher = Dispatcher().apply {
+            maxRequests = config.maxRequests
+            maxRequestsPerHost = config.maxRequestsPerHost
+        }
+        return OkHttpClient.Builder()
+            .connectionPool(
+                ConnectionPool(config.maxIdleConnections, config.keepAliveMillis, TimeUnit.MILLISECONDS)
+            )
+            .dispatcher(dispatcher)
+            .protocols(config.protocols)
+            .eventListenerFactory(NetworkTimingListener.FACTORY)
+            .connectTimeout(config.connectTimeoutMillis, TimeUnit.MILLISECONDS)
+            .readTimeout(config.readTimeoutMillis, TimeUnit.MILLISECONDS)
+            .writeTimeout(config.writeTimeoutMillis, TimeUnit.MILLISECONDS)
+            .apply { config.cacheDirectory?.let { cache(Cache(it, config.cacheMaxBytes)) } }
+            .build()
+    }
 
     private fun makeHttpRequest(
         urlString: String,
         method: String,
         headers: Map<String, String> = emptyMap(),
-        body: String? = null,
+        requestBody: RequestBody? = null,
+        priority: RequestPriority = RequestPriority.NORMAL,
         callback: (Result<String>) -> Unit
     ) {
+        val request = HyperHttpRequest(urlString, method, headers, requestBody, priority)
+        enqueue(request, onCall = {}) { result ->
+            callback(result.mapCatching { response ->
+                response.use { it.body?.string() ?: "success" }
+            })
+        }
+    }
+
+    /**
+     * Performs [request] and returns the response body as a String.
+     * Cancelling the calling coroutine cancels the underlying call.
+     *
+     * @throws HttpStatusException for non-2xx responses
+     * @throws IOException for network failures and timeouts
+     */
+    suspend fun execute(request: HyperHttpRequest): String =
+        stream(request) { it.readUtf8() }
+
+    /**
+     * Performs [request] and hands the response body to [reader] without buffering it,
+     * so large payloads never have to be held as a String. [reader] runs on
+     * [Dispatchers.IO] and the response is closed when it returns.
+     * Cancelling the calling coroutine cancels the underlying call, which also aborts
+     * a read [reader] is blocked in.
+     *
+     * @throws HttpStatusException for non-2xx responses
+     * @throws IOException for network failures and timeouts
+     */
+    suspend fun <T> stream(request: HyperHttpRequest, reader: (BufferedSource) -> T): T = coroutineScope {
+        val call = AtomicReference<Call>()
+        // A blocking read ignores coroutine cancellation, so cancel the call itself until [reader] returns.
+        val canceller = launch(start = CoroutineStart.UNDISPATCHED) {
+            try {
+                awaitCancellation()
+            } finally {
+                call.getAndSet(null)?.cancel()
+            }
+        }
         try {
-            val mediaType = "application/json".toMediaType()
-            val requestBody = body?.takeIf { it.isNotBlank() }?.toRequestBody(mediaType)
-
-            val url = try {
-                urlString.toHttpUrl()
-            } catch (e: Exception) {
-                callback(Result.failure(IllegalArgumentException("Invalid URL: $urlString", e)))
-                return
+            await(request, onCall = call::set).use { response ->
+                withContext(Dispatchers.IO) { reader(response.body?.source() ?: Buffer()) }
             }
+        } catch (e: IOException) {
+            // Report a read aborted by cancellation as the cancellation itself.
+            ensureActive()
+            throw e
+        } finally {
+            call.set(null)
+            canceller.cancel()
+        }
+    }
+
+    suspend fun get(
+        urlString: String,
+        headers: Map<String, String> = emptyMap(),
+        priority: RequestPriority = RequestPriority.NORMAL,
+        timeoutMillis: Long? = null
+    ): String = execute(HyperHttpRequest(urlString, "GET", headers, null, priority, timeoutMillis))
+
+    suspend fun put(
+        urlString: String,
+        body: RequestBody,
+        headers: Map<String, String> = emptyMap(),
+        priority: RequestPriority = RequestPriority.NORMAL,
+        timeoutMillis: Long? = null
+    ): String = execute(HyperHttpRequest(urlString, "PUT", headers, body, priority, timeoutMillis))
 
-            val requestBuilder = Request.Builder()
-                .url(url)
-                .method(method, requestBody)
+    suspend fun post(
+        urlString: String,
+        body: RequestBody,
+        headers: Map<String, String> = emptyMap(),
+        priority: RequestPriority = RequestPriority.NORMAL,
+        timeoutMillis: Long? = null
+    ): String = execute(HyperHttpRequest(urlString, "POST", headers, body, priority, timeoutMillis))
 
-            headers.forEach { (key, value) ->
-                requestBuilder.addHeader(key, value)
+    private suspend fun await(request: HyperHttpRequest, onCall: (Call) -> Unit = {}): Response =
+        suspendCancellableCoroutine { continuation ->
+            enqueue(
+                request,
+                onCall = { call ->
+                    onCall(call)
+                    continuation.invokeOnCancellation { call.cancel() }
+                },
+                isCancelled = { !continuation.isActive }
+            ) { result ->
+                result
+                    .onSuccess { response -> continuation.resume(response) { _, value, _ -> value.close() } }
+                    .onFailure { continuation.resumeWithException(it) }
             }
+        }
 
-            val request = requestBuilder.build()
-            client.newCall(request).enqueue(object : Callback {
+    /**
+     * Schedules [request] in its priority lane and reports the raw response, which the
+     * callback must close; the request holds its lane until then. Non-2xx responses are
+     * closed here and reported as [HttpStatusException].
+     *
+     * @param onCall Receives the call once it is created, e.g. to wire up cancellation
+     * @param isCancelled Checked when the lane admits the request; `true` skips it
+     */
+    private fun enqueue(
+        request: HyperHttpRequest,
+        onCall: (Call) -> Unit,
+        isCancelled: () -> Boolean = { false },
+        callback: (Result<Response>) -> Unit
+    ) {
+        val httpRequest = try {
+            buildRequest(request)
+        } catch (e: Exception) {
+            callback(Result.failure(e))
+            return
+        }
+        scheduler.submit(request.priority) { done ->
+            if (isCancelled()) {
+                done()
+                return@submit
+            }
+            execute(httpRequest, request.timeoutMillis, done, onCall, callback)
+        }
+    }
+
+    private fun buildRequest(request: HyperHttpRequest): Request {
+        val url = try {
+            request.url.toHttpUrl()
+        } catch (e: Exception) {
+            throw IllegalArgumentException("Invalid URL: ${request.url}", e)
+        }
+
+        val requestBuilder = Request.Builder()
+            .url(url)
+            .method(request.method, request.body)
+
+        request.headers.forEach { (key, value) ->
+            requestBuilder.addHeader(key, value)
+        }
+        request.cacheControl?.let { requestBuilder.cacheControl(it) }
+        return requestBuilder.build()
+    }
+
+    private fun execute(
+        request: Request,
+        timeoutMillis: Long?,
+        done: () -> Unit,
+        onCall: (Call) -> Unit,
+        callback: (Result<Response>) -> Unit
+    ) {
+        if (request.cacheControl?.onlyIfCached == true) {
+            executeFromCache(request, done, callback)
+            return
+        }
+        try {
+            val startNanos = SystemClock.elapsedRealtimeNanos()
+            HyperMetrics.counter(HyperMetrics.HTTP_REQUESTS).increment()
+            request.body?.contentLength()?.takeIf { it > 0 }?.let {
+                HyperMetrics.counter(HyperMetrics.HTTP_BYTES_UPLOADED).add(it)
+            }
+            val call = client.newCall(request)
+            timeoutMillis?.let { call.timeout().timeout(it, TimeUnit.MILLISECONDS) }
+            onCall(call)
+            call.enqueue(object : Callback {
                 override fun onFailure(call: Call, e: IOException) {
+                    done()
+                    HyperMetrics.histogram(HyperMetrics.HTTP_LATENCY_MS).recordSince(startNanos)
+                    HyperMetrics.counter(HyperMetrics.HTTP_FAILURES).increment()
                     callback(Result.failure(IOException("Network error: ${e.localizedMessage}", e)))
                 }
 
                 override fun onResponse(call: Call, response: Response) {
-                    response.use {
-                        when {
-                            it.isSuccessful -> callback(Result.success(it.body?.string() ?: "success"))
-                            it.code == 401 -> callback(Result.failure(Exception("Unauthorized (401) - Check API Key")))
-                            it.code == 500 -> callback(Result.failure(Exception("Server Error (500) - Try again later")))
-                            else -> callback(Result.failure(Exception("HTTP Error: ${it.code} - ${it.message}")))
+                    HyperMetrics.histogram(HyperMetrics.HTTP_LATENCY_MS).recordSince(startNanos)
+                    val released = releaseOnClose(response, done)
+                    if (released.isSuccessful) {
+                        callback(Result.success(released))
+                        return
+                    }
+                    HyperMetrics.counter(HyperMetrics.HTTP_FAILURES).increment()
+                    released.use {
+                        when (it.code) {
+                            401 -> callback(Result.failure(HttpStatusException(it.code, "Unauthorized (401) - Check API Key")))
+                            500 -> callback(Result.failure(HttpStatusException(it.code, "Server Error (500) - Try again later")))
+                            else -> callback(Result.failure(HttpStatusException(it.code, "HTTP Error: ${it.code} - ${it.message}")))
                         }
                     }
                 }
             })
         } catch (e: Exception) {
+            done()
+            callback(Result.failure(e))
+        }
+    }
+
+    /**
+     * Returns [response] with a body that calls [done] when closed, so a streamed or large
+     * body keeps its lane occupied, and [RequestPriority.BACKGROUND] deferred behind a
+     * [RequestPriority.CRITICAL] one, until it was read.
+     */
+    private fun releaseOnClose(response: Response, done: () -> Unit): Response {
+        val body = response.body ?: return response.also { done() }
+        return response.newBuilder().body(ReleasingResponseBody(body, done)).build()
+    }
+
+    /**
+     * Answers an `only-if-cached` request without counting it as network traffic.
+     * A cache miss is reported as [HttpStatusException] with status 504.
+     */
+    private fun executeFromCache(
+        request: Request,
+        done: () -> Unit,
+        callback: (Result<Response>) -> Unit
+    ) {
+        try {
+            client.newCall(request).enqueue(object : Callback {
+                override fun onFailure(call: Call, e: IOException) {
+                    done()
+                    callback(Result.failure(e))
+                }
+
+                override fun onResponse(call: Call, response: Response) {
+                    done()
+                    if (response.isSuccessful) {
+                        HyperMetrics.counter(HyperMetrics.HTTP_CACHE_HITS).increment()
+                        callback(Result.success(response))
+                    } else {
+                        response.close()
+                        callback(Result.failure(HttpStatusException(response.code, "Not cached")))
+                    }
+                }
+            })
+        } catch (e: Exception) {
+            done()
             callback(Result.failure(e))
         }
     }
 
     fun makePostRequest(urlString: String, postData: Any, callback: (Result<String>) -> Unit) {
+        makePostRequest(urlString, postData, RequestPriority.NORMAL, callback)
+    }
+
+    /**
+     * Posts [postData] as JSON in the lane of [priority].
+     */
+    fun makePostRequest(
+        urlString: String,
+        postData: Any,
+        priority: RequestPriority,
+        callback: (Result<String>) -> Unit
+    ) {
         makeHttpRequest(
             urlString = urlString,
             method = "POST",
             headers = mapOf("Content-Type" to "application/json"),
-            body = postData.toString().takeIf { it != "null" },
+            requestBody = postData.toString().takeIf { it != "null" && it.isNotBlank() }
+                ?.toRequestBody("application/json".toMediaType()),
+            priority = priority,
+            callback = callback
+        )
+    }
+
+    /**
+     * Posts a pre-built body, letting callers stream large payloads instead of
+     * materialising them as a String first.
+     */
+    fun makePostRequest(
+        urlString: String,
+        body: RequestBody,
+        headers: Map<String, String> = emptyMap(),
+        callback: (Result<String>) -> Unit
+    ) {
+        makePostRequest(urlString, body, headers, RequestPriority.NORMAL, callback)
+    }
+
+    /**
+     * Posts a pre-built body in the lane of [priority].
+     */
+    fun makePostRequest(
+        urlString: String,
+        body: RequestBody,
+        headers: Map<String, String>,
+        priority: RequestPriority,
+        callback: (Result<String>) -> Unit
+    ) {
+        makeHttpRequest(
+            urlString = urlString,
+            method = "POST",
+            headers = mapOf("Content-Type" to "application/json") + headers,
+            requestBody = body,
+            priority = priority,
             callback = callback
         )
     }
@@ -0,0 +1,37 @@
+package io.hyperswitch.networking
+
+import okhttp3.Protocol
+import java.io.File
+
+/**
+ * Tuning of the shared [HyperNetworking] client.
+ *
+ * @param maxIdleConnections Idle connections kept in the pool for reuse
+ * @param keepAliveMillis How long an idle pooled connection is kept open
+ * @param maxRequests Concurrent requests across all hosts
+ * @param maxRequestsPerHost Concurrent requests to a single host
+ * @param protocols Protocols offered during TLS negotiation, most preferred first
+ * @param connectTimeoutMillis Connect timeout, including the TLS handshake
+ * @param readTimeoutMillis Read timeout
+ * @param writeTimeoutMillis Write timeout
+ * @param maxConcurrentRequests Concurrent requests allowed per [RequestPriority] lane
+ * @param cacheDirectory Directory of the HTTP disk cache; `null` disables caching
+ * @param cacheMaxBytes Size bound of the HTTP disk cache
+ */
+data class HyperNetworkingConfig(
+    val maxIdleConnections: Int = 5,
+    val keepAliveMillis: Long = 5 * 60 * 1000L,
+    val maxRequests: Int = 64,
+    val maxRequestsPerHost: Int = 5,
+    val protocols: List<Protocol> = listOf(Protocol.HTTP_2, Protocol.HTTP_1_1),
+    val connectTimeoutMillis: Long = 15_000L,
+    val readTimeoutMillis: Long = 15_000L,
+    val writeTimeoutMillis: Long = 15_000L,
+    val maxConcurrentRequests: Map<RequestPriority, Int> = mapOf(
+        RequestPriority.CRITICAL to 8,
+        RequestPriority.NORMAL to 4,
+        RequestPriority.BACKGROUND to 1
+    ),
+    val cacheDirectory: File? = null,
+    val cacheMaxBytes: Long = 10L * 1024 * 1024
+)
@@ -0,0 +1,63 @@
+package io.hyperswitch.networking
+
+import android.os.SystemClock
+import io.hyperswitch.logs.HyperMetrics
+import okhttp3.Call
+import okhttp3.Connection
+import okhttp3.EventListener
+import okhttp3.Handshake
+import okhttp3.Protocol
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.net.Proxy
+
+/**
+ * Records DNS, connect and TLS timings of each call into [HyperMetrics], and whether the
+ * call reused a pooled connection, so the effect of [HyperNetworking.warmup] is measurable.
+ */
+internal class NetworkTimingListener : EventListener() {
+
+    private var dnsStartNanos = 0L
+    private var connectStartNanos = 0L
+    private var secureConnectStartNanos = 0L
+    private var connected = false
+
+    override fun dnsStart(call: Call, domainName: String) {
+        dnsStartNanos = SystemClock.elapsedRealtimeNanos()
+    }
+
+    override fun dnsEnd(call: Call, domainName: String, inetAddressList: List<InetAddress>) {
+        HyperMetrics.histogram(HyperMetrics.HTTP_DNS_MS).recordSince(dnsStartNanos)
+    }
+
+    override fun connectStart(call: Call, inetSocketAddress: InetSocketAddress, proxy: Proxy) {
+        connectStartNanos = SystemClock.elapsedRealtimeNanos()
+        connected = true
+    }
+
+    override fun secureConnectStart(call: Call) {
+        secureConnectStartNanos = SystemClock.elapsedRealtimeNanos()
+    }
+
+    override fun secureConnectEnd(call: Call, handshake: Handshake?) {
+        HyperMetrics.histogram(HyperMetrics.HTTP_TLS_MS).recordSince(secureConnectStartNanos)
+    }
+
+    override fun connectEnd(
+        call: Call,
+        inetSocketAddress: InetSocketAddress,
+        proxy: Proxy,
+        protocol: Protocol?
+    ) {
+        HyperMetrics.histogram(HyperMetrics.HTTP_CONNECT_MS).recordSince(connectStartNanos)
+    }
+
+    override fun connectionAcquired(call: Call, connection: Connection) {
+        val name = if (connected) HyperMetrics.HTTP_CONNECTIONS_OPENED else HyperMetrics.HTTP_CONNECTIONS_REUSED
+        HyperMetrics.counter(name).increment()
+    }
+
+    companion object {
+        val FACTORY = Factory { NetworkTimingListener() }
+    }
+}
@@ -0,0 +1,100 @@
+package io.hyperswitch.networking
+
+import java.util.ArrayDeque
+import java.util.EnumMap
+
+/**
+ * Admits requests per [RequestPriority] lane, each with its own concurrency budget.
+ * [RequestPriority.BACKGROUND] requests are not started while a
+ * [RequestPriority.CRITICAL] request is in flight.
+ *
+ * @param limits Maximum concurrent requests per lane
+ */
+internal class PriorityRequestScheduler(limits: Map<RequestPriority, Int>) {
+
+    private val lock = Any()
+    private val limits = EnumMap<RequestPriority, Int>(RequestPriority::class.java)
+    private val running = EnumMap<RequestPriority, Int>(RequestPriority::class.java)
+    private val pending = EnumMap<RequestPriority, ArrayDeque<(() -> Unit) -> Unit>>(RequestPriority::class.java)
+
+    init {
+        RequestPriority.entries.forEach {
+            running[it] = 0
+            pending[it] = ArrayDeque()
+        }
+        setLimits(limits)
+    }
+
+    fun setLimits(limits: Map<RequestPriority, Int>) {
+        val ready = synchronized(lock) {
+            RequestPriority.entries.forEach { this.limits[it] = (limits[it] ?: 1).coerceAtLeast(1) }
+            promote()
+        }
+        launch(ready)
+    }
+
+    /**
+     * Runs [start] once its lane has capacity. [start] receives a completion callback
+     * that must be invoked exactly once when the request finishes, successfully or not.
+     */
+    fun submit(priority: RequestPriority, start: (done: () -> Unit) -> Unit) {
+        val ready = synchronized(lock) {
+            pending.getValue(priority).addLast(start)
+            promote()
+        }
+        launch(ready)
+    }
+
+    private fun onFinished(priority: RequestPriority) {
+        val ready = synchronized(lock) {
+            running[priority] = running.getValue(priority) - 1
+            promote()
+        }
+        launch(ready)
+    }
+
+    /**
+     * Moves every request that may start now from its queue to running, in priority order.
+     * Must hold [lock]; the returned requests are started after it is released.
+     */
+    private fun promote(): List<Pair<() -> Unit, (() -> Unit) -> Unit>> {
+        val ready = mutableListOf<Pair<() -> Unit, (() -> Unit) -> Unit>>()
+        RequestPriority.entries.forEach { priority ->
+            val queue = pending.getValue(priority)
+            while (queue.isNotEmpty() && canStart(priority)) {
+                running[priority] = running.getValue(priority) + 1
+                ready.add(completion(priority) to queue.removeFirst())
+            }
+        }
+        return ready
+    }
+
+    private fun launch(ready: List<Pair<() -> Unit, (() -> Unit) -> Unit>>) {
+        ready.forEach { (done, start) ->
+            try {
+                start(done)
+            } catch (_: Exception) {
+                done()
+            }
+        }
+    }
+
+    private fun canStart(priority: RequestPriority): Boolean {
+        if (priority == RequestPriority.BACKGROUND && running.getValue(RequestPriority.CRITICAL) > 0) {
+            return false
+        }
+        return running.getValue(priority) < limits.getValue(priority)
+    }
+
+    private fun completion(priority: RequestPriority): () -> Unit {
+        var finished = false
+        return {
+            val first = synchronized(lock) {
+                val first = !finished
+                finished = true
+                first
+            }
+            if (first) onFinished(priority)
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package io.hyperswitch.networking
+
+import okhttp3.MediaType
+import okhttp3.ResponseBody
+import okio.BufferedSource
+import okio.ForwardingSource
+import okio.buffer
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Wraps a response [delegate] and invokes [onClosed] once, when the body is closed.
+ * [HyperNetworking] uses it to keep a request in its [RequestPriority] lane until its
+ * body was consumed, not just until the headers arrived.
+ */
+internal class ReleasingResponseBody(
+    private val delegate: ResponseBody,
+    private val onClosed: () -> Unit
+) : ResponseBody() {
+
+    private val closed = AtomicBoolean()
+    private val source: BufferedSource by lazy {
+        object : ForwardingSource(delegate.source()) {
+            override fun close() {
+                try {
+                    super.close()
+                } finally {
+                    release()
+                }
+            }
+        }.buffer()
+    }
+
+    override fun contentType(): MediaType? = delegate.contentType()
+
+    override fun contentLength(): Long = delegate.contentLength()
+
+    override fun source(): BufferedSource = source
+
+    override fun close() {
+        try {
+            delegate.close()
+        } finally {
+            release()
+        }
+    }
+
+    private fun release() {
+        if (closed.compareAndSet(false, true)) onClosed()
+    }
+}
@@ -0,0 +1,16 @@
+package io.hyperswitch.networking
+
+/**
+ * Scheduling class of a [HyperNetworking] request. Each class has its own concurrency
+ * budget, so telemetry can never occupy the slots needed by payment traffic.
+ */
+enum class RequestPriority {
+    /** User-facing calls on the payment path; never queued behind other classes. */
+    CRITICAL,
+
+    /** Regular SDK calls. */
+    NORMAL,
+
+    /** Telemetry and other deferrable work; held back while any CRITICAL request is in flight. */
+    BACKGROUND
+}
@@ -0,0 +1,70 @@
+package io.hyperswitch.logs
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+class BoundedLogQueueTest {
+
+    @Test
+    fun rejectsOffersWhenFullAndKeepsFifoOrder() {
+        val queue = BoundedLogQueue<Int>(4)
+
+        (1..4).forEach { assertTrue(queue.offer(it)) }
+        assertFalse(queue.offer(5))
+
+        assertEquals(listOf(1, 2, 3, 4), queue.snapshot())
+        assertEquals(listOf(1, 2, 3, 4), List(4) { queue.poll() })
+        assertNull(queue.poll())
+    }
+
+    @Test
+    fun concurrentProducersLoseAndDuplicateNothing() {
+        val queue = BoundedLogQueue<Item>(64)
+        val start = CountDownLatch(1)
+        val producersDone = AtomicInteger()
+
+        val producers = List(PRODUCERS) { producer ->
+            thread {
+                start.await()
+                for (sequence in 0 until ITEMS_PER_PRODUCER) {
+                    val item = Item(producer, sequence)
+                    while (!queue.offer(item)) Thread.yield()
+                }
+                producersDone.incrementAndGet()
+            }
+        }
+
+        val received = ArrayList<Item>(PRODUCERS * ITEMS_PER_PRODUCER)
+        start.countDown()
+        while (received.size < PRODUCERS * ITEMS_PER_PRODUCER) {
+            val item = queue.poll()
+            if (item == null) {
+                if (producersDone.get() == PRODUCERS && queue.snapshot().isEmpty()) break
+                Thread.yield()
+            } else {
+                received.add(item)
+            }
+        }
+        producers.forEach { it.join() }
+
+        assertEquals(PRODUCERS * ITEMS_PER_PRODUCER, received.size)
+        assertEquals(received.size, received.toSet().size)
+        received.groupBy { it.producer }.values.forEach { items ->
+            assertEquals((0 until ITEMS_PER_PRODUCER).toList(), items.map { it.sequence })
+        }
+        assertNull(queue.poll())
+    }
+
+    private data class Item(val producer: Int, val sequence: Int)
+
+    private companion object {
+        const val PRODUCERS = 8
+        const val ITEMS_PER_PRODUCER = 50_000
+    }
+}
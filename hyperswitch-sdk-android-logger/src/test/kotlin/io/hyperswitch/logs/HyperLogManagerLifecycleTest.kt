@@ -0,0 +1,113 @@
+package io.hyperswitch.logs
+
+import android.content.ComponentCallbacks2
+import androidx.test.core.app.ApplicationProvider
+import io.hyperswitch.networking.HyperNetworking
+import io.hyperswitch.networking.HyperNetworkingConfig
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.shadows.ShadowNetwork
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+class HyperLogManagerLifecycleTest {
+
+    private lateinit var server: MockWebServer
+    private val network = ShadowNetwork.newInstance(1)
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest) = MockResponse()
+        }
+        server.start()
+        HyperNetworking.configure(HyperNetworkingConfig())
+        // Debounce and deadline far beyond the test timeouts, so only the lifecycle hooks flush.
+        HyperLogManager.initialise(
+            publishableKey = "pk_test",
+            loggingEndPoint = server.url("/logs").toString(),
+            context = ApplicationProvider.getApplicationContext(),
+            batchingPolicy = LogBatchingPolicy(debounceMillis = IDLE_MILLIS, maxLatencyMillis = IDLE_MILLIS)
+        )
+    }
+
+    @After
+    fun tearDown() {
+        HyperLogManager.networkCallback.onAvailable(network)
+        server.shutdown()
+    }
+
+    @Test
+    fun backgroundFlushesBufferedLogsWithoutWaitingForTheDebounce() {
+        HyperLogManager.addLog(testLog(value = "backgrounded"))
+
+        HyperLogManager.componentCallbacks.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN)
+
+        assertTrue(awaitUploads { "backgrounded" in it }.isNotEmpty())
+    }
+
+    @Test
+    fun memoryPressureDropsDebugLogsAndFlushesTheRest() {
+        HyperLogManager.addLog(testLog(logType = LogType.DEBUG, value = "trimmed-debug"))
+        HyperLogManager.addLog(testLog(value = "trimmed-info"))
+
+        HyperLogManager.componentCallbacks.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW)
+
+        val uploads = awaitUploads { "trimmed-info" in it }
+        assertTrue(uploads.isNotEmpty())
+        assertFalse(uploads.any { "trimmed-debug" in it })
+        assertFalse(HyperLogManager.getAllLogs().any { "trimmed-debug" in it })
+    }
+
+    @Test
+    fun logsFlushedWhileOfflineAreUploadedWhenTheNetworkReturns() {
+        HyperLogManager.networkCallback.onLost(network)
+        HyperLogManager.addLog(testLog(value = "offline"))
+
+        HyperLogManager.componentCallbacks.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN)
+
+        assertTrue(awaitUploads(OFFLINE_WAIT_MILLIS) { "offline" in it }.isEmpty())
+        assertFalse(HyperLogManager.getAllLogs().any { "offline" in it })
+
+        HyperLogManager.networkCallback.onAvailable(network)
+
+        assertTrue(awaitUploads { "offline" in it }.isNotEmpty())
+    }
+
+    /**
+     * Collects upload bodies until one matches [predicate] or [timeoutMillis] elapses.
+     *
+     * @return Every body received, or an empty list if none matched
+     */
+    private fun awaitUploads(
+        timeoutMillis: Long = UPLOAD_TIMEOUT_MILLIS,
+        predicate: (String) -> Boolean
+    ): List<String> {
+        val bodies = mutableListOf<String>()
+        val deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis)
+        while (true) {
+            val remaining = deadline - System.nanoTime()
+            if (remaining <= 0) return emptyList()
+            val request = server.takeRequest(remaining, TimeUnit.NANOSECONDS) ?: return emptyList()
+            val body = request.body.readUtf8()
+            bodies.add(body)
+            if (predicate(body)) return bodies
+        }
+    }
+
+    private companion object {
+        const val IDLE_MILLIS = 10 * 60 * 1000L
+        const val UPLOAD_TIMEOUT_MILLIS = 5_000L
+        const val OFFLINE_WAIT_MILLIS = 500L
+    }
+}
@@ -0,0 +1,81 @@
+package io.hyperswitch.logs
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class HyperLogManagerTest {
+
+    @After
+    fun tearDown() {
+        HyperLogManager.setMinLogLevel(LogType.DEBUG)
+        HyperLogManager.setEnabledCategories(null)
+        HyperLogManager.setSamplingRules(LogSamplingRules())
+    }
+
+    @Test
+    fun levelAndCategoryFiltersDropOtherLogs() {
+        HyperLogManager.setMinLogLevel(LogType.WARNING)
+        HyperLogManager.setEnabledCategories(setOf(LogCategory.API))
+
+        assertFalse(HyperLogManager.isLoggable(LogType.INFO, LogCategory.API, EventName.CHECKOUT_INIT))
+        assertFalse(HyperLogManager.isLoggable(LogType.WARNING, LogCategory.USER_EVENT, EventName.CHECKOUT_INIT))
+        assertTrue(HyperLogManager.isLoggable(LogType.WARNING, LogCategory.API, EventName.CHECKOUT_INIT))
+    }
+
+    @Test
+    fun errorAndCrashLogsBypassLevelAndCategoryFilters() {
+        HyperLogManager.setMinLogLevel(LogType.WARNING)
+        HyperLogManager.setEnabledCategories(setOf(LogCategory.API))
+
+        assertTrue(HyperLogManager.isLoggable(LogType.ERROR, LogCategory.USER_EVENT, EventName.CHECKOUT_INIT))
+        assertTrue(HyperLogManager.isLoggable(LogType.INFO, LogCategory.USER_ERROR, EventName.CRASH_EVENT))
+    }
+
+    @Test
+    fun crashLogsAddedWhileFilteredAreKept() {
+        HyperLogManager.setMinLogLevel(LogType.ERROR)
+        HyperLogManager.setEnabledCategories(setOf(LogCategory.API))
+
+        HyperLogManager.addLog(
+            testLog(logType = LogType.INFO, eventName = EventName.CRASH_EVENT, category = LogCategory.USER_ERROR, value = "crash-kept")
+        )
+
+        assertTrue(HyperLogManager.getAllLogs().any { it.contains("crash-kept") })
+    }
+
+    @Test
+    fun isLoggableTakesNoRateLimitToken() {
+        HyperLogManager.setSamplingRules(
+            LogSamplingRules(rateLimits = mapOf(EventName.CONSOLE_LOG to LogRateLimit(eventsPerSecond = 0.001, burst = 1)))
+        )
+
+        repeat(10) {
+            assertTrue(HyperLogManager.isLoggable(LogType.INFO, LogCategory.USER_EVENT, EventName.CONSOLE_LOG))
+        }
+        HyperLogManager.addLog(testLog(eventName = EventName.CONSOLE_LOG, value = "within-limit"))
+        HyperLogManager.addLog(testLog(eventName = EventName.CONSOLE_LOG, value = "over-limit"))
+
+        val logs = HyperLogManager.getAllLogs()
+        assertTrue(logs.any { it.contains("within-limit") })
+        assertFalse(logs.any { it.contains("over-limit") })
+    }
+
+    @Test
+    fun lazyLogsDroppedByFiltersOrSamplingAreNeverBuilt() {
+        var built = 0
+        HyperLogManager.setMinLogLevel(LogType.WARNING)
+        HyperLogManager.log(LogType.DEBUG, LogCategory.USER_EVENT, EventName.CHECKOUT_INIT) { built++ }
+
+        HyperLogManager.setMinLogLevel(LogType.DEBUG)
+        HyperLogManager.setSamplingRules(LogSamplingRules(sampleRates = mapOf(LogType.DEBUG to 0.0)))
+        HyperLogManager.log(LogType.DEBUG, LogCategory.USER_EVENT, EventName.CHECKOUT_INIT) { built++ }
+
+        assertEquals(0, built)
+    }
+}
@@ -0,0 +1,120 @@
+package io.hyperswitch.logs
+
+import android.content.ComponentCallbacks2
+import io.hyperswitch.networking.HyperNetworking
+import io.hyperswitch.networking.HyperNetworkingConfig
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+class HyperLogManagerUploadFormatTest {
+
+    private lateinit var server: MockWebServer
+    @Volatile
+    private var envelopeStatus = 200
+    @Volatile
+    private var rejectedValue: String? = null
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest): MockResponse {
+                val rejected = rejectedValue?.let { request.body.clone().readUtf8().contains(it) } == true
+                return MockResponse().setResponseCode(
+                    when {
+                        rejected -> 400
+                        request.path == ENVELOPE_PATH -> envelopeStatus
+                        else -> 200
+                    }
+                )
+            }
+        }
+        server.start()
+        HyperNetworking.configure(HyperNetworkingConfig())
+        // Debounce and deadline far beyond the test timeouts, so only flush() uploads.
+        HyperLogManager.initialise(
+            publishableKey = "pk_test",
+            loggingEndPoint = server.url(ARRAY_PATH).toString(),
+            batchingPolicy = LogBatchingPolicy(debounceMillis = IDLE_MILLIS, maxLatencyMillis = IDLE_MILLIS),
+            uploadFormat = LogUploadFormat.ENVELOPE
+        )
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+        HyperLogManager.initialise(
+            publishableKey = "pk_test",
+            loggingEndPoint = server.url(ARRAY_PATH).toString()
+        )
+    }
+
+    @Test
+    fun missingEnvelopeEndpointFallsBackToArrayUploads() {
+        envelopeStatus = 404
+        HyperLogManager.addLog(testLog(value = "first"))
+        flush()
+
+        assertEquals(ENVELOPE_PATH, takeRequest().path)
+        val resent = takeRequest()
+        assertEquals(ARRAY_PATH, resent.path)
+        assertTrue(resent.body.readUtf8().contains("first"))
+
+        HyperLogManager.addLog(testLog(value = "second"))
+        flush()
+        assertEquals(ARRAY_PATH, takeRequest().path)
+    }
+
+    @Test
+    fun rejectedBatchKeepsTheEnvelopeFormat() {
+        rejectedValue = "rejected"
+        HyperLogManager.addLog(testLog(value = "rejected"))
+        flush()
+        assertEquals(ENVELOPE_PATH, takeRequest().path)
+
+        // The BACKGROUND lane admits one upload at a time and releases it only after the
+        // rejection was handled, so once "next" arrives the format for "last" is settled.
+        HyperLogManager.addLog(testLog(value = "next"))
+        flush()
+        val uploads = takeRequestsUntil("next")
+        HyperLogManager.addLog(testLog(value = "last"))
+        flush()
+        uploads += takeRequestsUntil("last")
+
+        assertEquals(listOf(ENVELOPE_PATH, ENVELOPE_PATH), uploads.map { it.path })
+    }
+
+    private fun flush() {
+        HyperLogManager.componentCallbacks.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN)
+    }
+
+    private fun takeRequestsUntil(value: String): MutableList<RecordedRequest> {
+        val requests = mutableListOf<RecordedRequest>()
+        do {
+            val request = takeRequest()
+            requests += request
+        } while (!request.body.clone().readUtf8().contains(value))
+        return requests
+    }
+
+    private fun takeRequest(): RecordedRequest =
+        server.takeRequest(UPLOAD_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS) ?: throw AssertionError("no upload")
+
+    private companion object {
+        const val ARRAY_PATH = "/logs/sdk"
+        const val ENVELOPE_PATH = "/logs/sdk/v2"
+        const val IDLE_MILLIS = 10 * 60 * 1000L
+        const val UPLOAD_TIMEOUT_MILLIS = 5_000L
+    }
+}
@@ -0,0 +1,75 @@
+package io.hyperswitch.logs
+
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import kotlin.concurrent.thread
+
+@RunWith(RobolectricTestRunner::class)
+class HyperTracerTest {
+
+    @After
+    fun tearDown() {
+        HyperTracer.currentSpan.remove()
+    }
+
+    @Test
+    fun spansStartedWhileAnotherIsCurrentBecomeItsChildren() {
+        val outer = HyperTracer.start(EventName.CHECKOUT_INIT)
+        val inner = HyperTracer.start(EventName.SCRIPT_LOAD_INIT)
+
+        assertEquals(outer.spanId, inner.parentSpanId)
+        assertSame(inner, HyperTracer.current())
+        inner.end()
+        assertSame(outer, HyperTracer.current())
+        outer.end()
+        assertNull(HyperTracer.current())
+    }
+
+    @Test
+    fun spanEndedOnAnotherThreadIsNoLongerCurrentWhereItStarted() {
+        val span = HyperTracer.start(EventName.CHECKOUT_INIT)
+
+        thread { span.end() }.join()
+
+        assertNull(HyperTracer.current())
+        val next = HyperTracer.start(EventName.SCRIPT_LOAD_INIT)
+        assertNull(next.parentSpanId)
+        next.end()
+    }
+
+    @Test
+    fun endingANestedSpanOnAnotherThreadRestoresTheEnclosingSpan() {
+        val outer = HyperTracer.start(EventName.CHECKOUT_INIT)
+        val inner = HyperTracer.start(EventName.SCRIPT_LOAD_INIT)
+
+        thread { inner.end() }.join()
+
+        assertSame(outer, HyperTracer.current())
+        val sibling = HyperTracer.start(EventName.CREATE_WEBVIEW_INIT)
+        assertEquals(outer.spanId, sibling.parentSpanId)
+        sibling.end()
+        outer.end()
+        assertNull(HyperTracer.current())
+    }
+
+    @Test
+    fun traceSuspendKeepsTheSpanCurrentAcrossThreads() = runBlocking {
+        HyperTracer.traceSuspend(EventName.CHECKOUT_INIT) { span ->
+            withContext(Dispatchers.IO) {
+                assertSame(span, HyperTracer.current())
+                val child = HyperTracer.start(EventName.SCRIPT_LOAD_INIT)
+                assertEquals(span.spanId, child.parentSpanId)
+                child.end()
+            }
+        }
+        assertNull(HyperTracer.current())
+    }
+}
@@ -0,0 +1,68 @@
+package io.hyperswitch.logs
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.TimeUnit
+
+class LogCoalescerTest {
+
+    private var now = 0L
+    private val coalescer = LogCoalescer(WINDOW_MILLIS) { now }
+
+    @Test
+    fun firstLogPassesThroughAndRepeatsAreAbsorbed() {
+        assertTrue(coalescer.offer(testLog(value = "timeout", timestamp = "100")))
+        assertFalse(coalescer.offer(testLog(value = "timeout", timestamp = "200")))
+        assertFalse(coalescer.offer(testLog(value = "timeout", timestamp = "300")))
+
+        assertTrue(coalescer.hasPending())
+        val summary = coalescer.drain().single()
+        assertEquals(2, summary.repeatCount)
+        assertFalse(coalescer.hasPending())
+    }
+
+    @Test
+    fun summaryCarriesFirstOccurrenceAndLastRepeatTimestamps() {
+        coalescer.offer(testLog(value = "timeout", timestamp = "100"))
+        coalescer.offer(testLog(value = "timeout", timestamp = "200"))
+        coalescer.offer(testLog(value = "timeout", timestamp = "300"))
+
+        val summary = coalescer.drain().single()
+        assertEquals("100", summary.firstTimestamp)
+        assertEquals("300", summary.timestamp)
+    }
+
+    @Test
+    fun valuesDifferingOnlyInDigitsAreCoalesced() {
+        assertTrue(coalescer.offer(testLog(value = "retry 1 after 250ms")))
+        assertFalse(coalescer.offer(testLog(value = "retry 2 after 500ms")))
+        assertTrue(coalescer.offer(testLog(value = "gave up")))
+        assertTrue(coalescer.offer(testLog(logType = LogType.ERROR, value = "retry 3 after 750ms")))
+    }
+
+    @Test
+    fun repeatAfterWindowPassesThroughAndQueuesPreviousSummary() {
+        coalescer.offer(testLog(value = "timeout", timestamp = "100"))
+        coalescer.offer(testLog(value = "timeout", timestamp = "200"))
+
+        now += TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS)
+        assertTrue(coalescer.offer(testLog(value = "timeout", timestamp = "900")))
+
+        val summary = coalescer.drain().single()
+        assertEquals("100", summary.firstTimestamp)
+        assertEquals("200", summary.timestamp)
+    }
+
+    @Test
+    fun zeroWindowPassesEveryLog() {
+        coalescer.windowMillis = 0
+        repeat(3) { assertTrue(coalescer.offer(testLog(value = "timeout"))) }
+        assertFalse(coalescer.hasPending())
+    }
+
+    private companion object {
+        const val WINDOW_MILLIS = 1_000L
+    }
+}
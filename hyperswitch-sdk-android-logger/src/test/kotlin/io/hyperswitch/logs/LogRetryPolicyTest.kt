@@ -0,0 +1,27 @@
+package io.hyperswitch.logs
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import kotlin.random.Random
+
+class LogRetryPolicyTest {
+
+    @Test
+    fun delaysGrowExponentiallyUpToTheCap() {
+        val policy = LogRetryPolicy(initialDelayMillis = 100, maxDelayMillis = 1_000, multiplier = 2.0, jitter = 0.0)
+
+        assertEquals(listOf(100L, 200L, 400L, 800L, 1_000L, 1_000L), (1..6).map { policy.delayMillis(it) })
+    }
+
+    @Test
+    fun jitterStaysWithinItsFractionOfTheDelay() {
+        val policy = LogRetryPolicy(initialDelayMillis = 1_000, jitter = 0.2)
+        val random = Random(42)
+
+        val delays = List(1_000) { policy.delayMillis(1, random) }
+
+        assertTrue(delays.all { it in 800L..1_200L })
+        assertTrue(delays.toSet().size > 1)
+    }
+}
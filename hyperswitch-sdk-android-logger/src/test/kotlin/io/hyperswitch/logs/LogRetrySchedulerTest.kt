@@ -0,0 +1,151 @@
+package io.hyperswitch.logs
+
+import io.hyperswitch.networking.HyperNetworking
+import io.hyperswitch.networking.HyperNetworkingConfig
+import io.hyperswitch.networking.RequestPriority
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.SocketPolicy
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+class LogRetrySchedulerTest {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+
+    private lateinit var server: MockWebServer
+    private val executor = ManualScheduledExecutor()
+    private val outcomes = LinkedBlockingQueue<Result<String>>()
+    private val scheduler = LogRetryScheduler(
+        { batch, callback ->
+            HyperNetworking.makePostRequest(
+                urlString = server.url("/logs/sdk").toString(),
+                body = batch.body(),
+                headers = mapOf(IDEMPOTENCY_KEY_HEADER to batch.idempotencyKey),
+                priority = RequestPriority.BACKGROUND
+            ) { result ->
+                callback(result)
+                outcomes.add(result)
+            }
+        },
+        LogRetryPolicy(
+            initialDelayMillis = INITIAL_DELAY_MILLIS,
+            maxDelayMillis = MAX_DELAY_MILLIS,
+            jitter = 0.0,
+            maxAttempts = MAX_ATTEMPTS
+        ),
+        executor
+    )
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+        HyperNetworking.configure(HyperNetworkingConfig(readTimeoutMillis = TIMEOUT_MILLIS))
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+        HyperNetworking.configure(HyperNetworkingConfig())
+    }
+
+    @Test
+    fun retriesServerErrorsWithTheSameIdempotencyKey() {
+        server.enqueue(MockResponse().setResponseCode(503))
+        server.enqueue(MockResponse().setResponseCode(500))
+        server.enqueue(MockResponse().setResponseCode(200))
+        val completed = CountDownLatch(1)
+
+        scheduler.submit(LogUploadBatch.fromLogs(listOf(testLog()), null) { completed.countDown() })
+
+        val delays = List(2) {
+            awaitOutcome()
+            executor.takeScheduled().also { it.run() }.delayMillis
+        }
+        awaitOutcome()
+        assertEquals(listOf(INITIAL_DELAY_MILLIS, INITIAL_DELAY_MILLIS * 2), delays)
+        assertEquals(0L, completed.count)
+        assertFalse(executor.hasScheduled())
+        val keys = List(3) { server.takeRequest().getHeader(IDEMPOTENCY_KEY_HEADER) }
+        assertEquals(1, keys.toSet().size)
+    }
+
+    @Test
+    fun retriesTimedOutUploads() {
+        server.enqueue(MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE))
+        server.enqueue(MockResponse().setResponseCode(200))
+        val completed = CountDownLatch(1)
+
+        scheduler.submit(LogUploadBatch.fromLogs(listOf(testLog()), null) { completed.countDown() })
+
+        assertTrue(awaitOutcome().isFailure)
+        executor.takeScheduled().run()
+        assertTrue(awaitOutcome().isSuccess)
+        assertEquals(0L, completed.count)
+        assertEquals(2, server.requestCount)
+    }
+
+    @Test
+    fun dropsBatchesRejectedWithClientErrors() {
+        server.enqueue(MockResponse().setResponseCode(400))
+        val completed = CountDownLatch(1)
+
+        scheduler.submit(LogUploadBatch.fromLogs(listOf(testLog()), null) { completed.countDown() })
+
+        assertTrue(awaitOutcome().isFailure)
+        assertEquals(0L, completed.count)
+        assertFalse(executor.hasScheduled())
+        assertEquals(1, server.requestCount)
+    }
+
+    @Test
+    fun spillsBatchesThatKeepFailing() {
+        repeat(MAX_ATTEMPTS) { server.enqueue(MockResponse().setResponseCode(503)) }
+        val store = LogOfflineStore(temporaryFolder.newFolder())
+        val completed = CountDownLatch(1)
+        scheduler.offlineStore = store
+
+        scheduler.submit(LogUploadBatch.fromLogs(listOf(testLog(value = "undelivered")), null) { completed.countDown() })
+
+        repeat(MAX_ATTEMPTS - 1) {
+            awaitOutcome()
+            executor.takeScheduled().run()
+        }
+        awaitOutcome()
+        assertFalse(executor.hasScheduled())
+        assertEquals(MAX_ATTEMPTS, server.requestCount)
+        assertEquals(1L, completed.count)
+        val records = mutableListOf<String>()
+        store.forEachRecord { records.add(String(it, Charsets.UTF_8)) }
+        assertEquals(1, records.size)
+        assertTrue(records.single().contains("undelivered"))
+    }
+
+    /**
+     * Waits for an upload attempt to finish; the scheduler has acted on it once this returns.
+     */
+    private fun awaitOutcome(): Result<String> =
+        outcomes.poll(TIMEOUT_MILLIS * 10, TimeUnit.MILLISECONDS) ?: throw AssertionError("upload did not finish")
+
+    private companion object {
+        const val IDEMPOTENCY_KEY_HEADER = "Idempotency-Key"
+        const val TIMEOUT_MILLIS = 300L
+        const val INITIAL_DELAY_MILLIS = 10L
+        const val MAX_DELAY_MILLIS = 40L
+        const val MAX_ATTEMPTS = 3
+    }
+}
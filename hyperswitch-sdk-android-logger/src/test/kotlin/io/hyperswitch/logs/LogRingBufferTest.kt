@@ -0,0 +1,153 @@
+package io.hyperswitch.logs
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+class LogRingBufferTest {
+
+    @Test
+    fun overflowEvictsOldestDebugFirst() {
+        val buffer = LogRingBuffer(4)
+
+        listOf(debug("d1"), info("i1"), debug("d2"), info("i2")).forEach { buffer.offer(it) }
+        buffer.offer(info("i3"))
+        buffer.offer(info("i4"))
+
+        assertEquals(listOf("i1", "i2", "i3", "i4"), buffer.snapshot().map { it.value })
+        assertEquals(2, buffer.droppedCount)
+    }
+
+    @Test
+    fun overflowDropsIncomingDebugWhenNoDebugIsBuffered() {
+        val buffer = LogRingBuffer(2)
+        buffer.offer(info("i1"))
+        buffer.offer(info("i2"))
+
+        assertEquals(-1, buffer.offer(debug("d1")))
+        assertEquals(listOf("i1", "i2"), buffer.snapshot().map { it.value })
+    }
+
+    @Test
+    fun overflowEvictsOldestLogOnceNoDebugIsLeft() {
+        val buffer = LogRingBuffer(2)
+        buffer.offer(info("i1"))
+        buffer.offer(info("i2"))
+
+        buffer.offer(info("i3"))
+
+        assertEquals(listOf("i2", "i3"), buffer.drain().map { it.value })
+        assertEquals(1, buffer.droppedCount)
+        assertTrue(buffer.isEmpty())
+    }
+
+    @Test
+    fun drainMergesLanesInOfferOrder() {
+        val buffer = LogRingBuffer(8)
+        listOf(debug("1"), info("2"), debug("3"), info("4"), info("5"), debug("6")).forEach { buffer.offer(it) }
+
+        assertEquals(listOf("1", "2", "3", "4", "5", "6"), buffer.drain().map { it.value })
+        assertEquals(0L, buffer.sizeBytes)
+    }
+
+    @Test
+    fun concurrentProducersWithConcurrentConsumerLoseNothing() {
+        val buffer = LogRingBuffer(256)
+        val start = CountDownLatch(1)
+        val producersDone = AtomicInteger()
+        val producers = List(PRODUCERS) { producer ->
+            thread {
+                start.await()
+                for (sequence in 0 until LOGS_PER_PRODUCER) {
+                    while (buffer.offerIfSpace(info(id(producer, sequence)))) Thread.yield()
+                }
+                producersDone.incrementAndGet()
+            }
+        }
+
+        val received = mutableListOf<String>()
+        start.countDown()
+        while (producersDone.get() < PRODUCERS || !buffer.isEmpty()) {
+            received.addAll(buffer.drain().map { it.value })
+        }
+        producers.forEach { it.join() }
+        received.addAll(buffer.drain().map { it.value })
+
+        assertEquals(0L, buffer.droppedCount)
+        assertReceivedInOrder(received, (0 until PRODUCERS).toList(), LOGS_PER_PRODUCER)
+    }
+
+    @Test
+    fun saturationDropsOnlyDebugLogs() {
+        val buffer = LogRingBuffer(4_096)
+        val start = CountDownLatch(1)
+        val debugProducers = (0 until PRODUCERS / 2).toList()
+        val infoProducers = (PRODUCERS / 2 until PRODUCERS).toList()
+        val producers = (0 until PRODUCERS).map { producer ->
+            thread {
+                start.await()
+                if (producer in infoProducers) {
+                    repeat(INFO_PER_PRODUCER) { buffer.offer(info(id(producer, it))) }
+                } else {
+                    repeat(DEBUG_PER_PRODUCER) { buffer.offer(debug(id(producer, it))) }
+                }
+            }
+        }
+        start.countDown()
+        producers.forEach { it.join() }
+
+        val drained = buffer.drain()
+        val debugCount = debugProducers.size * DEBUG_PER_PRODUCER
+        assertEquals(debugCount + infoProducers.size * INFO_PER_PRODUCER, drained.size + buffer.droppedCount.toInt())
+        assertReceivedInOrder(
+            drained.filter { it.logType == LogType.INFO }.map { it.value },
+            infoProducers,
+            INFO_PER_PRODUCER
+        )
+        val debugValues = drained.filter { it.logType == LogType.DEBUG }.map { it.value }
+        assertEquals(debugValues.size, debugValues.toSet().size)
+        debugValues.groupBy { producerOf(it) }.values.forEach { values ->
+            val sequences = values.map { sequenceOf(it) }
+            assertEquals(sequences.sorted(), sequences)
+        }
+    }
+
+    /**
+     * Offers [log] unless the buffer is full, so the lossless test never triggers eviction.
+     * Returns `true` if the caller should retry.
+     */
+    private fun LogRingBuffer.offerIfSpace(log: HSLog): Boolean {
+        if (snapshot().size >= 200) return true
+        offer(log)
+        return false
+    }
+
+    private fun assertReceivedInOrder(received: List<String>, producers: List<Int>, perProducer: Int) {
+        assertEquals(producers.size * perProducer, received.size)
+        assertEquals(received.size, received.toSet().size)
+        val byProducer = received.groupBy { producerOf(it) }
+        producers.forEach { producer ->
+            assertEquals((0 until perProducer).toList(), byProducer.getValue(producer).map { sequenceOf(it) })
+        }
+    }
+
+    private fun id(producer: Int, sequence: Int) = "$producer:$sequence"
+
+    private fun producerOf(id: String) = id.substringBefore(':').toInt()
+
+    private fun sequenceOf(id: String) = id.substringAfter(':').toInt()
+
+    private fun debug(value: String) = testLog(logType = LogType.DEBUG, value = value)
+
+    private fun info(value: String) = testLog(logType = LogType.INFO, value = value)
+
+    private companion object {
+        const val PRODUCERS = 8
+        const val LOGS_PER_PRODUCER = 5_000
+        const val INFO_PER_PRODUCER = 500
+        const val DEBUG_PER_PRODUCER = 5_000
+    }
+}
@@ -0,0 +1,71 @@
+package io.hyperswitch.logs
+
+import java.util.concurrent.AbstractExecutorService
+import java.util.concurrent.Callable
+import java.util.concurrent.Delayed
+import java.util.concurrent.Executors
+import java.util.concurrent.FutureTask
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+/**
+ * Runs submitted tasks on the calling thread and holds scheduled ones until the test runs them,
+ * so tests assert on the requested delays instead of waiting them out.
+ */
+internal class ManualScheduledExecutor : AbstractExecutorService(), ScheduledExecutorService {
+
+    class Task<V>(val delayMillis: Long, callable: Callable<V>) : FutureTask<V>(callable), ScheduledFuture<V> {
+        override fun getDelay(unit: TimeUnit): Long = unit.convert(delayMillis, TimeUnit.MILLISECONDS)
+
+        override fun compareTo(other: Delayed): Int =
+            delayMillis.compareTo(other.getDelay(TimeUnit.MILLISECONDS))
+    }
+
+    private val scheduled = LinkedBlockingQueue<Task<*>>()
+
+    /**
+     * Returns the next scheduled task without running it, waiting for one to be scheduled.
+     */
+    fun takeScheduled(timeoutMillis: Long = TIMEOUT_MILLIS): Task<*> =
+        scheduled.poll(timeoutMillis, TimeUnit.MILLISECONDS) ?: throw AssertionError("no task was scheduled")
+
+    fun hasScheduled(): Boolean = scheduled.isNotEmpty()
+
+    override fun execute(command: Runnable) = command.run()
+
+    override fun schedule(command: Runnable, delay: Long, unit: TimeUnit): ScheduledFuture<*> =
+        schedule(Executors.callable(command), delay, unit)
+
+    override fun <V> schedule(callable: Callable<V>, delay: Long, unit: TimeUnit): ScheduledFuture<V> =
+        Task(unit.toMillis(delay), callable).also { scheduled.add(it) }
+
+    override fun scheduleAtFixedRate(
+        command: Runnable,
+        initialDelay: Long,
+        period: Long,
+        unit: TimeUnit
+    ): ScheduledFuture<*> = throw UnsupportedOperationException()
+
+    override fun scheduleWithFixedDelay(
+        command: Runnable,
+        initialDelay: Long,
+        delay: Long,
+        unit: TimeUnit
+    ): ScheduledFuture<*> = throw UnsupportedOperationException()
+
+    override fun shutdown() {}
+
+    override fun shutdownNow(): List<Runnable> = emptyList()
+
+    override fun isShutdown(): Boolean = false
+
+    override fun isTerminated(): Boolean = false
+
+    override fun awaitTermination(timeout: Long, unit: TimeUnit): Boolean = false
+
+    private companion object {
+        const val TIMEOUT_MILLIS = 5_000L
+    }
+}
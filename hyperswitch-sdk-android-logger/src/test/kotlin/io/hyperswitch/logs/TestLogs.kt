@@ -0,0 +1,25 @@
+package io.hyperswitch.logs
+
+internal fun testLog(
+    logType: LogType = LogType.INFO,
+    eventName: EventName = EventName.CHECKOUT_INIT,
+    category: LogCategory = LogCategory.USER_EVENT,
+    value: String = "",
+    timestamp: String = System.currentTimeMillis().toString()
+): HSLog = HSLog(
+    timestamp = timestamp,
+    logType = logType,
+    category = category,
+    version = "1.0.0",
+    codePushVersion = "",
+    clientCoreVersion = "",
+    value = value,
+    internalMetadata = "",
+    sessionId = "session",
+    authenticationId = "",
+    merchantId = "merchant",
+    paymentId = "",
+    userAgent = "test",
+    eventName = eventName,
+    source = "test"
+)
@@ -0,0 +1,117 @@
+package io.hyperswitch.networking
+
+import io.hyperswitch.logs.HyperMetrics
+import kotlinx.coroutines.runBlocking
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+class HyperNetworkingCacheTest {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+
+    private lateinit var server: MockWebServer
+    @Volatile
+    private var version = "v1"
+    @Volatile
+    private var maxAgeSeconds = 60
+
+    private lateinit var previousConfig: HyperNetworkingConfig
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest): MockResponse {
+                val etag = "\"$version\""
+                val response = MockResponse()
+                    .setHeader("Cache-Control", "max-age=$maxAgeSeconds")
+                    .setHeader("ETag", etag)
+                return if (request.getHeader("If-None-Match") == etag) {
+                    response.setResponseCode(304)
+                } else {
+                    response.setBody(version)
+                }
+            }
+        }
+        server.start()
+        previousConfig = HyperNetworking.config
+        HyperNetworking.configure(previousConfig.copy(cacheDirectory = temporaryFolder.newFolder("http")))
+        revalidations.drain()
+    }
+
+    @After
+    fun tearDown() {
+        HyperNetworking.configure(previousConfig)
+        server.shutdown()
+    }
+
+    @Test
+    fun freshCachedResponsesAreServedWithoutRevalidation() {
+        assertEquals("v1", fetch())
+        assertEquals("v1", fetch())
+
+        assertEquals(0L, revalidations.drain())
+        assertEquals(1, server.requestCount)
+    }
+
+    @Test
+    fun staleCachedResponsesAreServedAndRevalidatedConditionally() {
+        maxAgeSeconds = 0
+        assertEquals("v1", fetch())
+        server.takeRequest()
+
+        assertEquals("v1", fetch())
+
+        assertEquals(1L, revalidations.drain())
+        val revalidation = takeRequest()
+        assertEquals("\"v1\"", revalidation.getHeader("If-None-Match"))
+    }
+
+    @Test
+    fun revalidationStoresTheNewResponseForTheNextCall() {
+        maxAgeSeconds = 0
+        assertEquals("v1", fetch())
+        takeRequest()
+        version = "v2"
+
+        assertEquals("v1", fetch())
+        assertEquals("\"v1\"", takeRequest().getHeader("If-None-Match"))
+        awaitBackgroundLane()
+
+        assertEquals("v2", fetch())
+    }
+
+    /**
+     * Returns once every [RequestPriority.BACKGROUND] request admitted so far, such as a
+     * revalidation, has been read and closed: the lane admits one request at a time.
+     */
+    private fun awaitBackgroundLane() {
+        runBlocking {
+            HyperNetworking.get(server.url("/lane").toString(), priority = RequestPriority.BACKGROUND)
+        }
+        takeRequest()
+    }
+
+    private fun takeRequest(): RecordedRequest =
+        server.takeRequest(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS) ?: throw AssertionError("no request")
+
+    private fun fetch() = runBlocking { HyperNetworking.getStaleWhileRevalidate(server.url("/config").toString()) }
+
+    private companion object {
+        const val TIMEOUT_MILLIS = 5_000L
+        val revalidations = HyperMetrics.counter(HyperMetrics.HTTP_CACHE_REVALIDATIONS)
+    }
+}
@@ -0,0 +1,114 @@
+package io.hyperswitch.networking
+
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.cancelAndJoin
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withTimeout
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+class HyperNetworkingStreamTest {
+
+    private lateinit var server: MockWebServer
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+        HyperNetworking.configure(HyperNetworkingConfig())
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+        HyperNetworking.configure(HyperNetworkingConfig())
+    }
+
+    @Test
+    fun cancellingTheCallerAbortsABlockedRead() = runBlocking {
+        server.enqueue(MockResponse().setBody("x".repeat(1024)).throttleBody(1, 1, TimeUnit.SECONDS))
+        val reading = CompletableDeferred<Unit>()
+        var failure: Throwable? = null
+
+        val job = launch {
+            try {
+                HyperNetworking.stream(HyperHttpRequest(server.url("/large").toString())) { source ->
+                    reading.complete(Unit)
+                    source.readUtf8()
+                }
+            } catch (e: Throwable) {
+                failure = e
+                throw e
+            }
+        }
+        reading.await()
+
+        withTimeout(CANCEL_TIMEOUT_MILLIS) { job.cancelAndJoin() }
+        assertTrue(failure != null)
+    }
+
+    @Test
+    fun completedStreamsLeaveTheConnectionPooled() = runBlocking {
+        server.enqueue(MockResponse().setBody("first"))
+        server.enqueue(MockResponse().setBody("second"))
+
+        val url = server.url("/data").toString()
+        assertEquals("first", HyperNetworking.stream(HyperHttpRequest(url)) { it.readUtf8() })
+        assertEquals("second", HyperNetworking.stream(HyperHttpRequest(url)) { it.readUtf8() })
+
+        assertEquals(0, server.takeRequest().sequenceNumber)
+        assertEquals(1, server.takeRequest().sequenceNumber)
+    }
+
+    @Test
+    fun requestsHoldTheirLaneUntilTheBodyWasRead() = runBlocking {
+        HyperNetworking.configure(HyperNetworkingConfig(maxConcurrentRequests = mapOf(RequestPriority.BACKGROUND to 1)))
+        server.enqueue(MockResponse().setBody("first"))
+        server.enqueue(MockResponse().setBody("second"))
+        val reading = CompletableDeferred<Unit>()
+        val release = CountDownLatch(1)
+
+        val first = async(Dispatchers.Default) {
+            HyperNetworking.stream(backgroundRequest("/first")) { source ->
+                reading.complete(Unit)
+                release.await()
+                source.readUtf8()
+            }
+        }
+        reading.await()
+        // Runs until the second request is admitted to its lane or queued behind the first.
+        val second = async(start = CoroutineStart.UNDISPATCHED) {
+            HyperNetworking.execute(backgroundRequest("/second"))
+        }
+
+        val calls = try {
+            HyperNetworking.dispatcher.let { it.runningCalls() + it.queuedCalls() }
+        } finally {
+            release.countDown()
+        }
+        assertTrue(calls.none { it.request().url.encodedPath == "/second" })
+        assertEquals("first", first.await())
+        assertEquals("second", second.await())
+    }
+
+    private fun backgroundRequest(path: String) =
+        HyperHttpRequest(server.url(path).toString(), priority = RequestPriority.BACKGROUND)
+
+    private companion object {
+        const val CANCEL_TIMEOUT_MILLIS = 2_000L
+    }
+}
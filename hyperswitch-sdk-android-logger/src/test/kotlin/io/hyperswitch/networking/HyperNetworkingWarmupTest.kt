@@ -0,0 +1,111 @@
+package io.hyperswitch.networking
+
+import io.hyperswitch.logs.HyperMetrics
+import kotlinx.coroutines.runBlocking
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+class HyperNetworkingWarmupTest {
+
+    private lateinit var server: MockWebServer
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+        HyperNetworking.configure(HyperNetworkingConfig())
+        resetMetrics()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+        HyperNetworking.configure(HyperNetworkingConfig())
+    }
+
+    @Test
+    fun firstRequestAfterWarmupReusesThePooledConnection() {
+        server.enqueue(MockResponse())
+        server.enqueue(MockResponse().setBody("ok"))
+
+        HyperNetworking.warmup(listOf(server.url("/logs").toString()))
+        assertEquals("HEAD", server.takeRequest(5, TimeUnit.SECONDS)?.method)
+
+        assertEquals("ok", getInBackgroundLane("/sdk"))
+
+        val request = server.takeRequest(5, TimeUnit.SECONDS)
+        assertEquals(1, request?.sequenceNumber)
+        assertEquals(1L, HyperMetrics.counter(HyperMetrics.HTTP_CONNECTIONS_OPENED).drain())
+        assertEquals(1L, HyperMetrics.counter(HyperMetrics.HTTP_CONNECTIONS_REUSED).drain())
+        assertEquals(1L, HyperMetrics.histogram(HyperMetrics.HTTP_CONNECT_MS).drain().count)
+    }
+
+    @Test
+    fun withoutWarmupTheFirstRequestOpensAConnection() {
+        server.enqueue(MockResponse().setBody("ok"))
+
+        assertEquals("ok", runBlocking { HyperNetworking.get(server.url("/sdk").toString()) })
+
+        assertEquals(0, server.takeRequest(5, TimeUnit.SECONDS)?.sequenceNumber)
+        assertEquals(1L, HyperMetrics.counter(HyperMetrics.HTTP_CONNECTIONS_OPENED).drain())
+        assertEquals(0L, HyperMetrics.counter(HyperMetrics.HTTP_CONNECTIONS_REUSED).drain())
+    }
+
+    @Test
+    fun warmupOpensOneConnectionPerOrigin() {
+        server.enqueue(MockResponse())
+        server.enqueue(MockResponse().setBody("ok"))
+
+        HyperNetworking.warmup(
+            listOf(server.url("/logs").toString(), server.url("/payments").toString(), "not a url")
+        )
+        assertEquals("HEAD", server.takeRequest(5, TimeUnit.SECONDS)?.method)
+        assertEquals(1L, HyperMetrics.counter(HyperMetrics.HTTP_REQUESTS).drain())
+
+        assertEquals("ok", getInBackgroundLane("/sdk"))
+        assertEquals(2, server.requestCount)
+        assertEquals(1, HyperNetworking.connectionPool.connectionCount())
+    }
+
+    @Test
+    fun warmupIsDeferredWhileACriticalRequestIsInFlight() {
+        server.enqueue(MockResponse().setBody("critical"))
+        server.enqueue(MockResponse())
+
+        val critical = HyperHttpRequest(server.url("/sdk").toString(), priority = RequestPriority.CRITICAL)
+        runBlocking {
+            HyperNetworking.stream(critical) { body ->
+                HyperNetworking.warmup(listOf(server.url("/logs").toString()))
+                // Only the critical request has started.
+                assertEquals(1L, HyperMetrics.counter(HyperMetrics.HTTP_REQUESTS).drain())
+                body.readUtf8()
+            }
+        }
+
+        assertEquals("GET", server.takeRequest(5, TimeUnit.SECONDS)?.method)
+        assertEquals("HEAD", server.takeRequest(5, TimeUnit.SECONDS)?.method)
+    }
+
+    /**
+     * Performs a [RequestPriority.BACKGROUND] GET, which the lane admits only after the
+     * warmup response was closed and its connection returned to the pool.
+     */
+    private fun getInBackgroundLane(path: String) = runBlocking {
+        HyperNetworking.get(server.url(path).toString(), priority = RequestPriority.BACKGROUND)
+    }
+
+    private fun resetMetrics() {
+        HyperMetrics.counter(HyperMetrics.HTTP_CONNECTIONS_OPENED).drain()
+        HyperMetrics.counter(HyperMetrics.HTTP_CONNECTIONS_REUSED).drain()
+        HyperMetrics.histogram(HyperMetrics.HTTP_CONNECT_MS).drain()
+        HyperMetrics.counter(HyperMetrics.HTTP_REQUESTS).drain()
+    }
+}
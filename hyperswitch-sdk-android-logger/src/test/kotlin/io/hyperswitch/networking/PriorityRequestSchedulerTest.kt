@@ -0,0 +1,96 @@
+package io.hyperswitch.networking
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class PriorityRequestSchedulerTest {
+
+    private val started = mutableListOf<String>()
+    private val completions = mutableMapOf<String, () -> Unit>()
+
+    @Test
+    fun criticalRequestsStartWhileBackgroundLaneIsSaturated() {
+        val scheduler = scheduler(background = 2)
+        repeat(100) { submit(scheduler, RequestPriority.BACKGROUND, "background-$it") }
+
+        submit(scheduler, RequestPriority.CRITICAL, "critical")
+
+        assertEquals(listOf("background-0", "background-1", "critical"), started)
+    }
+
+    @Test
+    fun backgroundRequestsAreHeldWhileCriticalIsInFlight() {
+        val scheduler = scheduler(background = 1)
+        submit(scheduler, RequestPriority.CRITICAL, "critical")
+        submit(scheduler, RequestPriority.BACKGROUND, "background-0")
+        submit(scheduler, RequestPriority.BACKGROUND, "background-1")
+
+        assertEquals(listOf("critical"), started)
+
+        complete("critical")
+        assertEquals(listOf("critical", "background-0"), started)
+    }
+
+    @Test
+    fun finishingBackgroundRequestsDoNotAdmitMoreWhileCriticalIsInFlight() {
+        val scheduler = scheduler(background = 2)
+        repeat(10) { submit(scheduler, RequestPriority.BACKGROUND, "background-$it") }
+        submit(scheduler, RequestPriority.CRITICAL, "critical")
+
+        complete("background-0")
+        complete("background-1")
+        assertEquals(listOf("background-0", "background-1", "critical"), started)
+
+        submit(scheduler, RequestPriority.CRITICAL, "critical-2")
+        assertEquals("critical-2", started.last())
+    }
+
+    @Test
+    fun queuedCriticalRequestsStartBeforeQueuedBackgroundOnes() {
+        val scheduler = scheduler(critical = 1, background = 1)
+        submit(scheduler, RequestPriority.CRITICAL, "critical-0")
+        submit(scheduler, RequestPriority.BACKGROUND, "background-0")
+        submit(scheduler, RequestPriority.CRITICAL, "critical-1")
+
+        complete("critical-0")
+        assertEquals(listOf("critical-0", "critical-1"), started)
+
+        complete("critical-1")
+        assertEquals(listOf("critical-0", "critical-1", "background-0"), started)
+    }
+
+    @Test
+    fun completionIsCountedOnce() {
+        val scheduler = scheduler(background = 1)
+        submit(scheduler, RequestPriority.BACKGROUND, "background-0")
+        submit(scheduler, RequestPriority.BACKGROUND, "background-1")
+        submit(scheduler, RequestPriority.BACKGROUND, "background-2")
+
+        complete("background-0")
+        complete("background-0")
+
+        assertEquals(listOf("background-0", "background-1"), started)
+        assertTrue(completions.containsKey("background-1"))
+    }
+
+    private fun scheduler(critical: Int = 8, normal: Int = 4, background: Int) =
+        PriorityRequestScheduler(
+            mapOf(
+                RequestPriority.CRITICAL to critical,
+                RequestPriority.NORMAL to normal,
+                RequestPriority.BACKGROUND to background
+            )
+        )
+
+    private fun submit(scheduler: PriorityRequestScheduler, priority: RequestPriority, name: String) {
+        scheduler.submit(priority) { done ->
+            started.add(name)
+            completions[name] = done
+        }
+    }
+
+    private fun complete(name: String) {
+        completions.getValue(name)()
+    }
+}
@@ -0,0 +1,51 @@
+package io.hyperswitch.networking
+
+import okhttp3.ResponseBody.Companion.toResponseBody
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class ReleasingResponseBodyTest {
+
+    private var releases = 0
+
+    @Test
+    fun readingTheBodyReleasesOnceItIsClosed() {
+        val body = ReleasingResponseBody("payload".toResponseBody()) { releases++ }
+
+        val source = body.source()
+        assertEquals("pay", source.readUtf8(3))
+        assertEquals(0, releases)
+
+        assertEquals("load", source.readUtf8())
+        assertEquals(0, releases)
+
+        source.close()
+        assertEquals(1, releases)
+    }
+
+    @Test
+    fun stringReleasesAfterReadingTheWholeBody() {
+        val body = ReleasingResponseBody("payload".toResponseBody()) { releases++ }
+
+        assertEquals("payload", body.string())
+        assertEquals(1, releases)
+    }
+
+    @Test
+    fun closingAnUnreadBodyReleases() {
+        val body = ReleasingResponseBody("payload".toResponseBody()) { releases++ }
+
+        body.close()
+        assertEquals(1, releases)
+    }
+
+    @Test
+    fun releaseIsReportedOnce() {
+        val body = ReleasingResponseBody("payload".toResponseBody()) { releases++ }
+
+        body.source().close()
+        body.close()
+        body.close()
+        assertEquals(1, releases)
+    }
+}
@@ -0,0 +1,123 @@
+package io.hyperswitch.webview.utils
+
+import android.app.Activity
+import android.content.MutableContextWrapper
+import android.webkit.WebView
+import android.webkit.WebViewClient
+import androidx.test.core.app.ActivityScenario
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@RunWith(AndroidJUnit4::class)
+class HSWebViewPoolTest {
+
+    private val instrumentation = InstrumentationRegistry.getInstrumentation()
+    private lateinit var scenario: ActivityScenario<Activity>
+    private lateinit var activity: Activity
+    private lateinit var manager: HSWebViewManagerImpl
+
+    @Before
+    fun setUp() {
+        scenario = ActivityScenario.launch(Activity::class.java)
+        scenario.onActivity { activity = it }
+        manager = HSWebViewManagerImpl(activity, { })
+        instrumentation.runOnMainSync {
+            HSWebViewPool.clear()
+            HSWebViewPool.prewarm(instrumentation.targetContext, 1)
+        }
+    }
+
+    @After
+    fun tearDown() {
+        instrumentation.runOnMainSync { HSWebViewPool.clear() }
+        scenario.close()
+    }
+
+    @Test
+    fun acquiredViewIsUnusedAndBoundToTheActivity() {
+        val webView = awaitPooledView()
+
+        instrumentation.runOnMainSync {
+            assertSame(activity, (webView.context as MutableContextWrapper).baseContext)
+            assertNull(webView.url)
+            assertEquals(0, webView.copyBackForwardList().size)
+        }
+    }
+
+    @Test
+    fun nextViewForTheSameOriginSeesNoStorage() {
+        val first = awaitPooledView()
+        val firstWrapper = load(first, "sessionStorage.setItem('card', '4242');")
+        instrumentation.runOnMainSync { manager.onDropViewInstance(firstWrapper) }
+
+        val second = awaitPooledView()
+        load(second, "")
+
+        assertNotSame(first, second)
+        assertEquals("null", evaluate(second, "sessionStorage.getItem('card')"))
+    }
+
+    /**
+     * Waits for the pool to create a view and takes it.
+     */
+    private fun awaitPooledView(): HSWebView {
+        val deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS)
+        var webView: HSWebView? = null
+        while (webView == null && System.nanoTime() < deadline) {
+            instrumentation.waitForIdleSync()
+            instrumentation.runOnMainSync { webView = HSWebViewPool.acquire(activity) { } }
+        }
+        assertNotNull("pool did not create a view", webView)
+        return webView!!
+    }
+
+    /**
+     * Shows a page on a fixed origin that runs [script], and waits for it to finish loading.
+     */
+    private fun load(webView: HSWebView, script: String): HSWebViewWrapper {
+        val finished = CountDownLatch(1)
+        lateinit var wrapper: HSWebViewWrapper
+        instrumentation.runOnMainSync {
+            wrapper = manager.createViewInstance(webView)
+            manager.setJavaScriptEnabled(wrapper, true)
+            webView.webViewClient = object : WebViewClient() {
+                override fun onPageFinished(view: WebView, url: String) {
+                    finished.countDown()
+                }
+            }
+            webView.loadDataWithBaseURL(ORIGIN, "<script>$script</script>", "text/html", "UTF-8", null)
+        }
+        assertTrue(finished.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+        return wrapper
+    }
+
+    private fun evaluate(webView: HSWebView, script: String): String? {
+        val evaluated = CountDownLatch(1)
+        var result: String? = null
+        instrumentation.runOnMainSync {
+            webView.evaluateJavascript(script) {
+                result = it
+                evaluated.countDown()
+            }
+        }
+        assertTrue(evaluated.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+        return result
+    }
+
+    private companion object {
+        const val ORIGIN = "https://pool.hyperswitch.test/"
+        const val TIMEOUT_MILLIS = 10_000L
+    }
+}
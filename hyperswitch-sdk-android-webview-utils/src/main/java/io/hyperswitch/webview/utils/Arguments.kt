@@ -1,8 +1,8 @@
 package io.hyperswitch.webview.utils
 
+import java.util.AbstractMap.SimpleImmutableEntry
 import java.util.ArrayList
 import java.util.HashMap
-import kotlin.collections.iterator
 
 @DoNotStrip
 public object Arguments {
@@ -11,18 +11,34 @@ public object Arguments {
     @JvmStatic public fun createArray(): WritableArray = WritableNativeArray()
 }
 
+/**
+ * [WritableMap] laid out as an array of keys parallel to [TypedValues], so building an
+ * event costs a few array writes instead of a hash table node and a boxed value per entry.
+ * Lookups scan the keys, which is cheap for the handful of keys WebView events carry.
+ */
 class WritableNativeMap : WritableMap {
-    private val map: HashMap<String, Any?> = HashMap()
+    private var keys = arrayOfNulls<String>(DEFAULT_CAPACITY)
+    private val slots = TypedValues(DEFAULT_CAPACITY)
+
+    /**
+     * Returns a read-only view of this map, without copying it, that [Callback]s receive.
+     * Nested maps and arrays are converted like [toHashMap] when they are read.
+     * The view reflects later writes, so it must only be used once the map is complete.
+     */
+    fun asMap(): Map<String, Any?> = view ?: MapView().also { view = it }
+
+    private var view: MapView? = null
 
     override fun copy(): WritableMap {
         val copy = WritableNativeMap()
-        for ((key, value) in map) {
-            when (value) {
-                is WritableNativeMap -> copy.putMap(key, value.copy())
-                is ReadableMap -> copy.putMap(key, (value as? WritableMap)?.copy())
-                is WritableNativeArray -> copy.putArray(key, value.copy())
-                is ReadableArray -> copy.putArray(key, value)
-                else -> copy.map[key] = value
+        for (i in 0 until slots.size) {
+            val key = keys[i]!!
+            val value = slots.getRef(i)
+            when {
+                value is WritableNativeMap -> copy.putMap(key, value.copy())
+                slots.isMap(i) -> copy.putMap(key, (value as? WritableMap)?.copy())
+                value is WritableNativeArray -> copy.putArray(key, value.copy())
+                else -> copy.slots.setFrom(copy.slotFor(key), slots, i)
             }
         }
         return copy
@@ -48,255 +64,230 @@ class WritableNativeMap : WritableMap {
         key: String,
         value: ReadableArray?,
     ) {
-        map[key] = value
+        slots.setArray(slotFor(key), value)
     }
 
     override fun putBoolean(
         key: String,
         value: Boolean,
     ) {
-        map[key] = value
+        slots.setBoolean(slotFor(key), value)
     }
 
     override fun putDouble(
         key: String,
         value: Double,
     ) {
-        map[key] = value
+        slots.setDouble(slotFor(key), value)
     }
 
     override fun putInt(
         key: String,
         value: Int,
     ) {
-        map[key] = value
+        slots.setInt(slotFor(key), value)
     }
 
     override fun putLong(
         key: String,
         value: Long,
     ) {
-        map[key] = value
+        slots.setLong(slotFor(key), value)
     }
 
     override fun putMap(
         key: String,
         value: ReadableMap?,
     ) {
-        map[key] = value
+        slots.setMap(slotFor(key), value)
     }
 
     override fun putNull(key: String) {
-        map[key] = null
+        slots.setNull(slotFor(key))
     }
 
     override fun putString(
         key: String,
         value: String?,
     ) {
-        map[key] = value
+        slots.setString(slotFor(key), value)
     }
 
     override val entryIterator: Iterator<Map.Entry<String, Any?>>
-        get() = map.entries.iterator()
+        get() = EntryIterator(plain = false)
 
-    override fun getArray(name: String): ReadableArray? = map[name] as? ReadableArray
+    override fun getArray(name: String): ReadableArray? = lookup(name) { slots.getRef(it) as? ReadableArray }
 
-    override fun getBoolean(name: String): Boolean = map[name] as? Boolean ?: false
+    override fun getBoolean(name: String): Boolean = lookup(name) { slots.getBoolean(it) } ?: false
 
-    override fun getDouble(name: String): Double {
-        val value = map[name]
-        return when (value) {
-            is Double -> value
-            is Int -> value.toDouble()
-            is Long -> value.toDouble()
-            is Float -> value.toDouble()
-            else -> 0.0
-        }
-    }
+    override fun getDouble(name: String): Double = lookup(name) { slots.getDouble(it) } ?: 0.0
+
+    override fun getDynamic(name: String): Dynamic = DynamicImpl(lookup(name) { slots.valueAt(it) })
+
+    override fun getInt(name: String): Int = lookup(name) { slots.getInt(it) } ?: 0
+
+    override fun getLong(name: String): Long = lookup(name) { slots.getLong(it) } ?: 0L
+
+    override fun getMap(name: String): ReadableMap? = lookup(name) { slots.getRef(it) as? ReadableMap }
+
+    override fun getString(name: String): String? = lookup(name) { slots.getRef(it) as? String }
 
-    override fun getDynamic(name: String): Dynamic = DynamicImpl(map[name])
+    override fun getType(name: String): ReadableType = lookup(name) { slots.getType(it) } ?: ReadableType.Null
 
-    override fun getInt(name: String): Int {
-        val value = map[name]
-        return when (value) {
-            is Int -> value
-            is Double -> value.toInt()
-            is Long -> value.toInt()
-            is Float -> value.toInt()
-            else -> 0
+    override fun hasKey(name: String): Boolean = indexOf(name) >= 0
+
+    override fun isNull(name: String): Boolean = lookup(name) { slots.isNull(it) } ?: false
+
+    override fun keySetIterator(): ReadableMapKeySetIterator =
+        WritableNativeMapKeySetIterator(EntryIterator(plain = false).asSequence().map { it.key }.iterator())
+
+    override fun toHashMap(): HashMap<String, Any?> {
+        val hashMap = HashMap<String, Any?>(slots.size * 4 / 3 + 1)
+        for (i in 0 until slots.size) {
+            hashMap[keys[i]!!] = slots.plainValueAt(i)
         }
+        return hashMap
     }
 
-    override fun getLong(name: String): Long {
-        val value = map[name]
-        return when (value) {
-            is Long -> value
-            is Int -> value.toLong()
-            is Double -> value.toLong()
-            is Float -> value.toLong()
-            else -> 0L
+    private fun indexOf(key: String): Int {
+        for (i in 0 until slots.size) {
+            if (keys[i] == key) return i
         }
+        return -1
+    }
+
+    private inline fun <T> lookup(key: String, read: (Int) -> T): T? {
+        val index = indexOf(key)
+        return if (index < 0) null else read(index)
+    }
+
+    /**
+     * Returns the slot of [key], appending one if the key is new.
+     */
+    private fun slotFor(key: String): Int {
+        val existing = indexOf(key)
+        if (existing >= 0) return existing
+        val index = slots.add()
+        if (index == keys.size) keys = keys.copyOf(index * 2)
+        keys[index] = key
+        return index
     }
 
-    override fun getMap(name: String): ReadableMap? = map[name] as? ReadableMap
+    private inner class EntryIterator(private val plain: Boolean) : Iterator<Map.Entry<String, Any?>> {
+        private var next = 0
 
-    override fun getString(name: String): String? = map[name] as? String
+        override fun hasNext(): Boolean = next < slots.size
 
-    override fun getType(name: String): ReadableType {
-        val value = map[name]
-        return when (value) {
-            null -> ReadableType.Null
-            is Boolean -> ReadableType.Boolean
-            is Number -> ReadableType.Number
-            is String -> ReadableType.String
-            is ReadableMap -> ReadableType.Map
-            is ReadableArray -> ReadableType.Array
-            else -> ReadableType.Null
+        override fun next(): Map.Entry<String, Any?> {
+            if (!hasNext()) throw NoSuchElementException()
+            val index = next++
+            val value = if (plain) slots.plainValueAt(index) else slots.valueAt(index)
+            return SimpleImmutableEntry(keys[index]!!, value)
         }
     }
 
-    override fun hasKey(name: String): Boolean = map.containsKey(name)
+    private inner class MapView : AbstractMap<String, Any?>() {
+        override val entries: Set<Map.Entry<String, Any?>> =
+            object : AbstractSet<Map.Entry<String, Any?>>() {
+                override val size: Int
+                    get() = slots.size
 
-    override fun isNull(name: String): Boolean = map.containsKey(name) && map[name] == null
+                override fun iterator(): Iterator<Map.Entry<String, Any?>> = EntryIterator(plain = true)
+            }
 
-    override fun keySetIterator(): ReadableMapKeySetIterator = WritableNativeMapKeySetIterator(map.keys.iterator())
+        override val size: Int
+            get() = slots.size
 
-    override fun toHashMap(): HashMap<String, Any?> {
-        val hashMap = HashMap<String, Any?>()
-        for ((key, value) in map) {
-            when (value) {
-                is ReadableMap -> hashMap[key] = value.toHashMap()
-                is ReadableArray -> hashMap[key] = value.toArrayList()
-                else -> hashMap[key] = value
-            }
-        }
-        return hashMap
+        override fun containsKey(key: String): Boolean = indexOf(key) >= 0
+
+        override fun get(key: String): Any? = lookup(key) { slots.plainValueAt(it) }
+    }
+
+    private companion object {
+        const val DEFAULT_CAPACITY = 8
     }
 }
 
+/**
+ * [WritableArray] backed by [TypedValues], so pushed numbers and booleans are not boxed.
+ */
 class WritableNativeArray : WritableArray {
-    private val array: ArrayList<Any?> = ArrayList()
+    private val slots = TypedValues()
 
     fun copy(): WritableNativeArray {
         val copy = WritableNativeArray()
-        for (value in array) {
-            when (value) {
+        for (i in 0 until slots.size) {
+            when (val value = slots.getRef(i)) {
                 is WritableNativeMap -> copy.pushMap(value.copy())
-                is ReadableMap -> copy.pushMap(value)
                 is WritableNativeArray -> copy.pushArray(value.copy())
-                is ReadableArray -> copy.pushArray(value)
-                is Boolean -> copy.pushBoolean(value)
-                is Number -> copy.pushDouble(value.toDouble())
-                is String -> copy.pushString(value)
-                null -> copy.pushNull()
-                else -> copy.array.add(value)
+                else -> copy.slots.setFrom(copy.slots.add(), slots, i)
             }
         }
         return copy
     }
 
     override fun pushArray(array: ReadableArray?) {
-        this.array.add(array)
+        slots.setArray(slots.add(), array)
     }
 
     override fun pushBoolean(value: Boolean) {
-        array.add(value)
+        slots.setBoolean(slots.add(), value)
     }
 
     override fun pushDouble(value: Double) {
-        array.add(value)
+        slots.setDouble(slots.add(), value)
     }
 
     override fun pushInt(value: Int) {
-        array.add(value)
+        slots.setInt(slots.add(), value)
     }
 
     override fun pushLong(value: Long) {
-        array.add(value)
+        slots.setLong(slots.add(), value)
     }
 
     override fun pushMap(map: ReadableMap?) {
-        array.add(map)
+        slots.setMap(slots.add(), map)
     }
 
     override fun pushNull() {
-        array.add(null)
+        slots.setNull(slots.add())
     }
 
     override fun pushString(value: String?) {
-        array.add(value)
+        slots.setString(slots.add(), value)
     }
 
-    override fun getArray(index: Int): ReadableArray? = array.getOrNull(index) as? ReadableArray
+    override fun getArray(index: Int): ReadableArray? = read(index) { slots.getRef(it) as? ReadableArray }
 
-    override fun getBoolean(index: Int): Boolean = array.getOrNull(index) as? Boolean ?: false
+    override fun getBoolean(index: Int): Boolean = read(index) { slots.getBoolean(it) } ?: false
 
-    override fun getDouble(index: Int): Double {
-        val value = array.getOrNull(index)
-        return when (value) {
-            is Double -> value
-            is Int -> value.toDouble()
-            is Long -> value.toDouble()
-            is Float -> value.toDouble()
-            else -> 0.0
-        }
-    }
+    override fun getDouble(index: Int): Double = read(index) { slots.getDouble(it) } ?: 0.0
 
-    override fun getDynamic(index: Int): Dynamic = DynamicImpl(array.getOrNull(index))
+    override fun getDynamic(index: Int): Dynamic = DynamicImpl(read(index) { slots.valueAt(it) })
 
-    override fun getInt(index: Int): Int {
-        val value = array.getOrNull(index)
-        return when (value) {
-            is Int -> value
-            is Double -> value.toInt()
-            is Long -> value.toInt()
-            is Float -> value.toInt()
-            else -> 0
-        }
-    }
+    override fun getInt(index: Int): Int = read(index) { slots.getInt(it) } ?: 0
 
-    override fun getLong(index: Int): Long {
-        val value = array.getOrNull(index)
-        return when (value) {
-            is Long -> value
-            is Int -> value.toLong()
-            is Double -> value.toLong()
-            is Float -> value.toLong()
-            else -> 0L
-        }
-    }
+    override fun getLong(index: Int): Long = read(index) { slots.getLong(it) } ?: 0L
 
-    override fun getMap(index: Int): ReadableMap? = array.getOrNull(index) as? ReadableMap
+    override fun getMap(index: Int): ReadableMap? = read(index) { slots.getRef(it) as? ReadableMap }
 
-    override fun getString(index: Int): String? = array.getOrNull(index) as? String
+    override fun getString(index: Int): String? = read(index) { slots.getRef(it) as? String }
 
-    override fun getType(index: Int): ReadableType {
-        val value = array.getOrNull(index)
-        return when (value) {
-            null -> ReadableType.Null
-            is Boolean -> ReadableType.Boolean
-            is Number -> ReadableType.Number
-            is String -> ReadableType.String
-            is ReadableMap -> ReadableType.Map
-            is ReadableArray -> ReadableType.Array
-            else -> ReadableType.Null
-        }
-    }
+    override fun getType(index: Int): ReadableType = read(index) { slots.getType(it) } ?: ReadableType.Null
 
-    override fun isNull(index: Int): Boolean = index < array.size && array[index] == null
+    override fun isNull(index: Int): Boolean = read(index) { slots.isNull(it) } ?: false
 
-    override fun size(): Int = array.size
+    override fun size(): Int = slots.size
 
     override fun toArrayList(): ArrayList<Any?> {
-        val arrayList = ArrayList<Any?>()
-        for (value in array) {
-            when (value) {
-                is ReadableMap -> arrayList.add(value.toHashMap())
-                is ReadableArray -> arrayList.add(value.toArrayList())
-                else -> arrayList.add(value)
-            }
+        val arrayList = ArrayList<Any?>(slots.size)
+        for (i in 0 until slots.size) {
+            arrayList.add(slots.plainValueAt(i))
         }
         return arrayList
     }
+
+    private inline fun <T> read(index: Int, read: (Int) -> T): T? =
+        if (index in 0 until slots.size) read(index) else null
 }
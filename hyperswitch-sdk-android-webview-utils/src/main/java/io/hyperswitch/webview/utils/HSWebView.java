@@ -18,17 +18,25 @@ import android.webkit.WebView;
 import android.webkit.WebViewClient;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.webkit.JavaScriptReplyProxy;
+import androidx.webkit.ScriptHandler;
 import androidx.webkit.WebMessageCompat;
+import androidx.webkit.WebMessagePortCompat;
 import androidx.webkit.WebViewCompat;
 import androidx.webkit.WebViewFeature;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 
 public class HSWebView extends WebView {
+    private static final String TAG = "HSWebView";
     protected @Nullable
     String injectedJS;
     protected @Nullable
@@ -39,6 +47,81 @@ public class HSWebView extends WebView {
     protected @Nullable
     WebViewCompat.WebMessageListener bridgeListener = null;
 
+    /**
+     * Prefix of a payload carrying several messages as a JSON array of strings.
+     */
+    protected static final String MESSAGE_BATCH_PREFIX = "__hs_batch__:";
+
+    /**
+     * Replaces window.HSAndroidInterface with a wrapper that queues messages and sends those
+     * posted within one animation frame as a single payload. The timeout flushes pages that
+     * are not rendering frames, and pagehide flushes before the document goes away.
+     */
+    private static final String MESSAGE_BATCHING_SCRIPT =
+            "(function(){\n" +
+            "    var bridge = window." + JAVASCRIPT_INTERFACE + ";\n" +
+            "    if (!bridge || bridge.__hsBatching) return;\n" +
+            "    var queue = [];\n" +
+            "    var scheduled = false;\n" +
+            "    function flush() {\n" +
+            "        if (!queue.length) return;\n" +
+            "        var batch = queue;\n" +
+            "        queue = [];\n" +
+            "        scheduled = false;\n" +
+            "        bridge.postMessage(batch.length === 1 ? batch[0] : '" + MESSAGE_BATCH_PREFIX + "' + JSON.stringify(batch));\n" +
+            "    }\n" +
+            "    window." + JAVASCRIPT_INTERFACE + " = {\n" +
+            "        __hsBatching: true,\n" +
+            "        injectedObjectJson: bridge.injectedObjectJson,\n" +
+            "        postMessage: function (message) {\n" +
+            "            queue.push(String(message));\n" +
+            "            if (scheduled) return;\n" +
+            "            scheduled = true;\n" +
+            "            if (window.requestAnimationFrame) window.requestAnimationFrame(flush);\n" +
+            "            setTimeout(flush, 50);\n" +
+            "        }\n" +
+            "    };\n" +
+            "    window.addEventListener('pagehide', flush);\n" +
+            "})();";
+
+    protected boolean messageBatchingEnabled = false;
+    private @Nullable
+    ScriptHandler messageBatchingScript;
+
+    /**
+     * Message carrying the page end of the message channel opened by {@link #openMessageChannel}.
+     */
+    private static final String MESSAGE_PORT_HANDSHAKE = "__hs_port__";
+
+    /**
+     * Takes the page end of the message channel from the handshake and dispatches every message
+     * received on it as a MessageEvent on document, like the evaluateJavascript path does. The
+     * handshake is stopped in the capture phase so page listeners on window never see it.
+     */
+    private static final String MESSAGE_PORT_SCRIPT =
+            "(function(){\n" +
+            "    if (window.__hsMessagePort) return;\n" +
+            "    window.__hsMessagePort = true;\n" +
+            "    window.addEventListener('message', function (e) {\n" +
+            "        if (e.data !== '" + MESSAGE_PORT_HANDSHAKE + "' || !e.ports || !e.ports.length) return;\n" +
+            "        e.stopImmediatePropagation();\n" +
+            "        e.ports[0].onmessage = function (message) {\n" +
+            "            var event;\n" +
+            "            try {\n" +
+            "                event = new MessageEvent('message', { data: message.data });\n" +
+            "            } catch (err) {\n" +
+            "                event = document.createEvent('MessageEvent');\n" +
+            "                event.initMessageEvent('message', true, true, message.data, '', '', null);\n" +
+            "            }\n" +
+            "            document.dispatchEvent(event);\n" +
+            "        };\n" +
+            "    }, true);\n" +
+            "})();";
+
+    private @Nullable
+    WebMessagePortCompat messagePort;
+    private int messagePortGeneration = 0;
+
     /**
      * android.webkit.WebChromeClient fundamentally does not support JS injection into frames other
      * than the main frame, so these two properties are mostly here just for parity with iOS & macOS.
@@ -59,7 +142,13 @@ public class HSWebView extends WebView {
     protected boolean nestedScrollEnabled = false;
     protected ProgressChangedFilter progressChangedFilter;
 
-    private final Callback callback;
+    private Callback callback;
+
+    /**
+     * Answers {@link WebViewFeature} checks; replaced in unit tests, which have no WebView provider to ask.
+     */
+    @VisibleForTesting
+    static Predicate<String> featureSupport = WebViewFeature::isFeatureSupported;
 
     /**
      * WebView must be created with an context of the current activity
@@ -74,6 +163,17 @@ public class HSWebView extends WebView {
         callback = onMessage;
     }
 
+    private static boolean isFeatureSupported(String feature) {
+        return featureSupport.test(feature);
+    }
+
+    /**
+     * Redirects events to a new receiver; used when {@link HSWebViewPool} hands out a pooled view.
+     */
+    void setCallback(Callback onMessage) {
+        callback = onMessage;
+    }
+
     public void setBasicAuthCredential(HSBasicAuthCredential credential) {
         mHSWebViewClient.setBasicAuthCredential(credential);
     }
@@ -228,7 +328,7 @@ public class HSWebView extends WebView {
     }
 
     protected void createHSWebViewBridge(HSWebView webView) {
-        if (WebViewFeature.isFeatureSupported(WebViewFeature.WEB_MESSAGE_LISTENER)){
+        if (isFeatureSupported(WebViewFeature.WEB_MESSAGE_LISTENER)){
             if (this.bridgeListener == null) {
                 this.bridgeListener = new WebViewCompat.WebMessageListener() {
                     @Override
@@ -262,6 +362,119 @@ public class HSWebView extends WebView {
         }
     }
 
+    /**
+     * Delivers the messages a page posts within one animation frame as a single bridge call,
+     * split again and dispatched in order by {@link #onMessage}. Applies to the current page and,
+     * where document-start scripts are supported, to every later document before its scripts run;
+     * elsewhere from the start of each later page load.
+     */
+    public void setMessageBatchingEnabled(boolean enabled) {
+        if (messageBatchingEnabled == enabled) {
+            return;
+        }
+        messageBatchingEnabled = enabled;
+
+        if (enabled) {
+            if (isFeatureSupported(WebViewFeature.DOCUMENT_START_SCRIPT)) {
+                messageBatchingScript = WebViewCompat.addDocumentStartJavaScript(this, MESSAGE_BATCHING_SCRIPT, Set.of("*"));
+            }
+            evaluateJavascriptWithFallback(MESSAGE_BATCHING_SCRIPT);
+        } else if (messageBatchingScript != null) {
+            messageBatchingScript.remove();
+            messageBatchingScript = null;
+        }
+    }
+
+    /**
+     * Installs the batching wrapper when a page starts loading on WebViews without
+     * document-start script support.
+     */
+    void injectMessageBatchingScript() {
+        if (messageBatchingEnabled && messageBatchingScript == null) {
+            evaluateJavascriptWithFallback(MESSAGE_BATCHING_SCRIPT);
+        }
+    }
+
+    /**
+     * Dispatches a message event carrying {@code data} on the page's document, through the page's
+     * message channel once it is open and by evaluating a script otherwise.
+     */
+    public void postMessageToPage(String data) {
+        if (messagePort != null) {
+            messagePort.postMessage(new WebMessageCompat(data));
+            return;
+        }
+        try {
+            JSONObject eventInitDict = new JSONObject();
+            eventInitDict.put("data", data);
+            evaluateJavascriptWithFallback("(function () {" +
+                    "var event;" +
+                    "var data = " + eventInitDict.toString() + ";" +
+                    "try {" +
+                    "event = new MessageEvent('message', data);" +
+                    "} catch (e) {" +
+                    "event = document.createEvent('MessageEvent');" +
+                    "event.initMessageEvent('message', true, true, data.data, data.origin, data.lastEventId, data.source);" +
+                    "}" +
+                    "document.dispatchEvent(event);" +
+                    "})();");
+        } catch (JSONException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Opens a message channel to the page that has finished loading, so {@link #postMessageToPage}
+     * no longer has to parse and run a script per message. The port is handed over once the
+     * receiving script has run, so messages sent before then through evaluateJavascript are
+     * dispatched first. Does nothing on WebViews without message channel support.
+     */
+    void openMessageChannel() {
+        if (messagePort != null || !getSettings().getJavaScriptEnabled() || !isMessageChannelSupported()) {
+            return;
+        }
+        final int generation = messagePortGeneration;
+        evaluateJavascript(MESSAGE_PORT_SCRIPT, value -> {
+            if (generation != messagePortGeneration || messagePort != null) {
+                return;
+            }
+            messagePort = createMessagePort();
+        });
+    }
+
+    /**
+     * Creates a message channel and hands its page end over to the receiving script.
+     *
+     * @return The native end of the channel
+     */
+    @VisibleForTesting
+    WebMessagePortCompat createMessagePort() {
+        WebMessagePortCompat[] ports = WebViewCompat.createWebMessageChannel(this);
+        WebViewCompat.postWebMessage(this,
+                new WebMessageCompat(MESSAGE_PORT_HANDSHAKE, new WebMessagePortCompat[]{ports[1]}),
+                Uri.parse("*"));
+        return ports[0];
+    }
+
+    /**
+     * Closes the current page's message channel, when a new page starts loading or the view is
+     * reset, and discards one that is still being opened.
+     */
+    void closeMessageChannel() {
+        messagePortGeneration++;
+        if (messagePort != null) {
+            messagePort.close();
+            messagePort = null;
+        }
+    }
+
+    private static boolean isMessageChannelSupported() {
+        return isFeatureSupported(WebViewFeature.CREATE_WEB_MESSAGE_CHANNEL) &&
+                isFeatureSupported(WebViewFeature.POST_WEB_MESSAGE) &&
+                isFeatureSupported(WebViewFeature.WEB_MESSAGE_PORT_POST_MESSAGE) &&
+                isFeatureSupported(WebViewFeature.WEB_MESSAGE_PORT_CLOSE);
+    }
+
     @SuppressLint("AddJavascriptInterface")
     public void setMessagingEnabled(boolean enabled) {
         if (messagingEnabled == enabled) {
@@ -305,9 +518,20 @@ public class HSWebView extends WebView {
     }
 
     public void onMessage(String message, String sourceUrl) {
-        Context reactContext = getThemedReactContext();
-        HSWebView mWebView = this;
+        if (messageBatchingEnabled && message != null && message.startsWith(MESSAGE_BATCH_PREFIX)) {
+            List<String> messages = splitMessageBatch(message);
+            if (messages != null) {
+                dispatchMessages(messages, sourceUrl);
+                return;
+            }
+        }
+        dispatchMessages(Collections.singletonList(message), sourceUrl);
+    }
 
+    /**
+     * Dispatches messages in order, from a single main-thread task when events carry page state.
+     */
+    private void dispatchMessages(List<String> messages, String sourceUrl) {
         if (mHSWebViewClient != null) {
             WebView webView = this;
             webView.post(new Runnable() {
@@ -316,25 +540,50 @@ public class HSWebView extends WebView {
                     if (mHSWebViewClient == null) {
                         return;
                     }
-                    WritableMap data = mHSWebViewClient.createWebViewEvent(webView, sourceUrl);
-                    data.putString("data", message);
-
-                    if (mMessagingJSModule != null) {
-                        dispatchDirectMessage(data);
-                    } else {
-                         dispatchEvent(webView, data);
+                    // Page state is the same for every message of a batch, so it is read once
+                    WritableMap event = mHSWebViewClient.createWebViewEvent(webView, sourceUrl);
+                    for (int i = 0; i < messages.size(); i++) {
+                        WritableMap data = i < messages.size() - 1 ? event.copy() : event;
+                        data.putString("data", messages.get(i));
+
+                        if (mMessagingJSModule != null) {
+                            dispatchDirectMessage(data);
+                        } else {
+                             dispatchEvent(webView, data);
+                        }
                     }
                 }
             });
         } else {
-            WritableMap eventData = Arguments.createMap();
-            eventData.putString("data", message);
+            for (String message : messages) {
+                WritableMap eventData = Arguments.createMap();
+                eventData.putString("data", message);
 
-            if (mMessagingJSModule != null) {
-                dispatchDirectMessage(eventData);
-            } else {
-                 dispatchEvent(this, eventData);
+                if (mMessagingJSModule != null) {
+                    dispatchDirectMessage(eventData);
+                } else {
+                     dispatchEvent(this, eventData);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The messages of a batch payload, or null if it is malformed and must be
+     * delivered as a single message
+     */
+    private @Nullable
+    List<String> splitMessageBatch(String payload) {
+        try {
+            JSONArray batch = new JSONArray(payload.substring(MESSAGE_BATCH_PREFIX.length()));
+            List<String> messages = new ArrayList<>(batch.length());
+            for (int i = 0; i < batch.length(); i++) {
+                messages.add(batch.getString(i));
             }
+            return messages;
+        } catch (JSONException e) {
+            Log.w(TAG, "Delivering malformed message batch as a single message", e);
+            return null;
         }
     }
 
@@ -387,12 +636,16 @@ public class HSWebView extends WebView {
         dispatchEvent(this, event);
     }
     protected void dispatchEvent(WebView webView, ReadableMap event) {
-        Context reactContext = getThemedReactContext();
 //        int reactTag = HSWebViewWrapper.getReactTagFromWebView(webView);
 //        UIManagerHelper.getEventDispatcherForReactTag(reactContext, reactTag).dispatchEvent(event);
-        System.out.println(event.toHashMap());
-
-        callback.invoke(event.toHashMap());
+        // Events are built per dispatch and not modified afterwards, so their entries are passed as is
+        Map<String, Object> args = event instanceof WritableNativeMap
+                ? Collections.unmodifiableMap(((WritableNativeMap) event).asMap())
+                : event.toHashMap();
+        if (BuildConfig.DEBUG && Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "dispatchEvent: " + args);
+        }
+        callback.invoke(args);
     }
 
     protected void cleanupCallbacksAndDestroy() {
@@ -402,6 +655,7 @@ public class HSWebView extends WebView {
 
     @Override
     public void destroy() {
+        closeMessageChannel();
         if (mWebChromeClient != null) {
             mWebChromeClient.onHideCustomView();
         }
@@ -55,6 +55,7 @@ public class HSWebViewClient extends WebViewClient {
             HSWebView reactWebView = (HSWebView) webView;
 
             reactWebView.callInjectedJavaScript();
+            reactWebView.openMessageChannel();
 
             emitFinishEvent(webView, url);
         }
@@ -73,6 +74,8 @@ public class HSWebViewClient extends WebViewClient {
         mLastLoadFailed = false;
 
         HSWebView reactWebView = (HSWebView) webView;
+        reactWebView.closeMessageChannel();
+        reactWebView.injectMessageBatchingScript();
         reactWebView.callInjectedJavaScriptBeforeContentLoaded();
     }
 
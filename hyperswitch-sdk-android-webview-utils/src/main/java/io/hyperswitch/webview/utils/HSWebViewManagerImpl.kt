@@ -8,6 +8,7 @@ import android.graphics.Bitmap
 import android.graphics.Color
 import android.net.Uri
 import android.os.Build
+import android.os.SystemClock
 import android.util.Log
 import android.view.View
 import android.view.ViewGroup
@@ -21,8 +22,6 @@ import android.webkit.WebViewClient
 import androidx.core.view.ViewCompat
 import androidx.webkit.WebSettingsCompat
 import androidx.webkit.WebViewFeature
-import org.json.JSONException
-import org.json.JSONObject
 import java.io.UnsupportedEncodingException
 import java.net.MalformedURLException
 import java.net.URL
@@ -30,10 +29,14 @@ import java.util.Locale
 
 val invalidCharRegex = "[\\\\/%\"]".toRegex()
 
+/**
+ * @param timingListener Notified after every [createViewInstance] that creates its own WebView
+ */
 class HSWebViewManagerImpl(
     private val activity: Activity,
     private val onMessage: Callback,
     private val newArch: Boolean = false,
+    private val timingListener: HSWebViewTimingListener? = null,
 ) {
 
     private val TAG = "HSWebViewManagerImpl"
@@ -59,11 +62,18 @@ class HSWebViewManagerImpl(
     private val DEFAULT_LACK_PERMISSION_TO_DOWNLOAD_MESSAGE =
         "Cannot download files as permission was denied. Please provide permission to write to storage, in order to download files."
 
-    fun createHSWebViewInstance(): HSWebView = HSWebView(activity, onMessage)
+    /**
+     * Takes a pre-constructed view from [HSWebViewPool] if one is ready, otherwise creates one.
+     */
+    fun createHSWebViewInstance(): HSWebView =
+        HSWebViewPool.acquire(activity, onMessage) ?: HSWebView(activity, onMessage)
 
     fun createViewInstance(): HSWebViewWrapper {
+        val startNanos = SystemClock.elapsedRealtimeNanos()
         val webView = createHSWebViewInstance()
-        return createViewInstance(webView)
+        return createViewInstance(webView).also {
+            timingListener?.onViewInstanceCreated(SystemClock.elapsedRealtimeNanos() - startNanos)
+        }
     }
 
     fun createViewInstance(webView: HSWebView): HSWebViewWrapper {
@@ -344,26 +354,7 @@ class HSWebViewManagerImpl(
             "goForward" -> webView.goForward()
             "reload" -> webView.reload()
             "stopLoading" -> webView.stopLoading()
-            "postMessage" ->
-                try {
-                    val eventInitDict = JSONObject()
-                    eventInitDict.put("data", args.getString(0))
-                    webView.evaluateJavascriptWithFallback(
-                        "(function () {" +
-                            "var event;" +
-                            "var data = " + eventInitDict.toString() + ";" +
-                            "try {" +
-                            "event = new MessageEvent('message', data);" +
-                            "} catch (e) {" +
-                            "event = document.createEvent('MessageEvent');" +
-                            "event.initMessageEvent('message', true, true, data.data, data.origin, data.lastEventId, data.source);" +
-                            "}" +
-                            "document.dispatchEvent(event);" +
-                            "})();",
-                    )
-                } catch (e: JSONException) {
-                    throw RuntimeException(e)
-                }
+            "postMessage" -> webView.postMessageToPage(args.getString(0))
             "injectJavaScript" -> webView.evaluateJavascriptWithFallback(args.getString(0))
             "loadUrl" -> {
                 val url = args?.getString(0) ?: throw RuntimeException("Arguments for loading an url are null!")
@@ -612,6 +603,13 @@ class HSWebViewManagerImpl(
         view.setMessagingEnabled(value)
     }
 
+    fun setMessageBatchingEnabled(
+        viewWrapper: HSWebViewWrapper,
+        value: Boolean,
+    ) {
+        viewWrapper.webView.setMessageBatchingEnabled(value)
+    }
+
     fun setMediaPlaybackRequiresUserAction(
         viewWrapper: HSWebViewWrapper,
         value: Boolean,
@@ -0,0 +1,118 @@
+package io.hyperswitch.webview.utils
+
+import android.app.Activity
+import android.content.ComponentCallbacks2
+import android.content.Context
+import android.content.MutableContextWrapper
+import android.content.res.Configuration
+import android.os.Handler
+import android.os.Looper
+import android.os.MessageQueue
+
+/**
+ * Small pool of pre-constructed [HSWebView]s, so opening a WebView-backed flow does not pay
+ * for WebView construction, and for the first WebView of the process, Chromium initialization.
+ *
+ * Views are created one per main-thread idle slot after [prewarm], so filling the pool never
+ * delays a frame. They are built on a [MutableContextWrapper] around the application context,
+ * so a pooled view never leaks an activity, and [acquire] points it at the requesting activity
+ * so dialogs keep working.
+ * Views are never taken back: sessionStorage, the memory cache and back-forward state cannot be
+ * cleared for a single view, so a view that was handed out is destroyed once dropped and the
+ * pool refills with a new one.
+ * All methods other than [prewarm] must be called on the main thread.
+ */
+object HSWebViewPool {
+
+    const val MAX_SIZE = 2
+
+    private val mainHandler = Handler(Looper.getMainLooper())
+    private val views = ArrayDeque<HSWebView>()
+    private var applicationContext: Context? = null
+    private var targetSize = 0
+    private var refillScheduled = false
+
+    private val refill = MessageQueue.IdleHandler {
+        val context = applicationContext
+        if (context == null || views.size >= targetSize) {
+            refillScheduled = false
+            return@IdleHandler false
+        }
+        try {
+            views.addLast(HSWebView(MutableContextWrapper(context)) { })
+        } catch (_: Exception) {
+            // No usable WebView provider; stop trying for this process
+            targetSize = 0
+        }
+        refillScheduled = views.size < targetSize
+        refillScheduled
+    }
+
+    /**
+     * Fills the pool with up to [size] views, one per main-thread idle slot.
+     * Call it once the SDK is initialised; safe to call from any thread and more than once.
+     *
+     * @param context Any context; only its application context is retained
+     * @param size Number of views to keep ready, at most [MAX_SIZE]
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun prewarm(context: Context, size: Int = 1) {
+        val appContext = context.applicationContext
+        mainHandler.post {
+            if (applicationContext == null) {
+                appContext.registerComponentCallbacks(trimCallbacks)
+            }
+            applicationContext = appContext
+            targetSize = size.coerceIn(0, MAX_SIZE)
+            scheduleRefill()
+        }
+    }
+
+    /**
+     * Takes a pooled view for [activity] whose events go to [onMessage], and schedules a refill.
+     *
+     * @return A view that has not loaded anything yet, or `null` if none is ready
+     */
+    @JvmStatic
+    fun acquire(activity: Activity, onMessage: Callback): HSWebView? {
+        if (Looper.myLooper() != Looper.getMainLooper()) return null
+        val webView = views.removeFirstOrNull()
+        if (webView != null) {
+            (webView.context as MutableContextWrapper).baseContext = activity
+            webView.setCallback(onMessage)
+        }
+        scheduleRefill()
+        return webView
+    }
+
+    /**
+     * Destroys every pooled view and stops refilling until the next [prewarm].
+     */
+    @JvmStatic
+    fun clear() {
+        targetSize = 0
+        while (true) {
+            (views.removeFirstOrNull() ?: break).destroy()
+        }
+    }
+
+    private fun scheduleRefill() {
+        if (refillScheduled || views.size >= targetSize) return
+        refillScheduled = true
+        Looper.myQueue().addIdleHandler(refill)
+    }
+
+    private val trimCallbacks = object : ComponentCallbacks2 {
+        override fun onTrimMemory(level: Int) {
+            if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) clear()
+        }
+
+        override fun onConfigurationChanged(newConfig: Configuration) {}
+
+        @Deprecated("Deprecated in Java")
+        override fun onLowMemory() {
+            clear()
+        }
+    }
+}
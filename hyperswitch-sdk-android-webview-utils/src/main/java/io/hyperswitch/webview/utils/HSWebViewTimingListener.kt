@@ -0,0 +1,12 @@
+package io.hyperswitch.webview.utils
+
+/**
+ * Receives timings of WebView setup, letting modules that own a metrics
+ * registry record them without this module depending on it.
+ */
+public fun interface HSWebViewTimingListener {
+    /**
+     * @param durationNanos Time taken by [HSWebViewManagerImpl.createViewInstance]
+     */
+    public fun onViewInstanceCreated(durationNanos: Long)
+}
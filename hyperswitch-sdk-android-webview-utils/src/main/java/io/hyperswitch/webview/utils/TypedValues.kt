@@ -0,0 +1,129 @@
+package io.hyperswitch.webview.utils
+
+/**
+ * Growable list of values stored in parallel arrays with a type tag per slot, backing
+ * [WritableNativeMap] and [WritableNativeArray].
+ *
+ * Numbers and booleans are kept unboxed in [bits]; strings, maps and arrays in [refs].
+ * Values are only boxed when read through an untyped accessor such as [valueAt].
+ */
+internal class TypedValues(initialCapacity: Int = DEFAULT_CAPACITY) {
+
+    private var tags = ByteArray(initialCapacity)
+    private var bits = LongArray(initialCapacity)
+    private var refs = arrayOfNulls<Any>(initialCapacity)
+
+    var size: Int = 0
+        private set
+
+    /**
+     * Appends a null slot and returns its index, to be filled by one of the setters.
+     */
+    fun add(): Int {
+        if (size == tags.size) grow()
+        return size++
+    }
+
+    fun setNull(index: Int) = set(index, NULL, 0L, null)
+
+    fun setBoolean(index: Int, value: Boolean) = set(index, BOOLEAN, if (value) 1L else 0L, null)
+
+    fun setInt(index: Int, value: Int) = set(index, INT, value.toLong(), null)
+
+    fun setLong(index: Int, value: Long) = set(index, LONG, value, null)
+
+    fun setDouble(index: Int, value: Double) = set(index, DOUBLE, value.toRawBits(), null)
+
+    fun setString(index: Int, value: String?) = set(index, if (value == null) NULL else STRING, 0L, value)
+
+    fun setMap(index: Int, value: ReadableMap?) = set(index, if (value == null) NULL else MAP, 0L, value)
+
+    fun setArray(index: Int, value: ReadableArray?) = set(index, if (value == null) NULL else ARRAY, 0L, value)
+
+    /**
+     * Copies the slot at [index] of [source] into the slot at [target] of this list.
+     */
+    fun setFrom(target: Int, source: TypedValues, index: Int) =
+        set(target, source.tags[index], source.bits[index], source.refs[index])
+
+    fun isNull(index: Int): Boolean = tags[index] == NULL
+
+    fun isMap(index: Int): Boolean = tags[index] == MAP
+
+    fun getBoolean(index: Int): Boolean = tags[index] == BOOLEAN && bits[index] != 0L
+
+    fun getDouble(index: Int): Double = when (tags[index]) {
+        DOUBLE -> Double.fromBits(bits[index])
+        INT, LONG -> bits[index].toDouble()
+        else -> 0.0
+    }
+
+    fun getInt(index: Int): Int = when (tags[index]) {
+        DOUBLE -> Double.fromBits(bits[index]).toInt()
+        INT, LONG -> bits[index].toInt()
+        else -> 0
+    }
+
+    fun getLong(index: Int): Long = when (tags[index]) {
+        DOUBLE -> Double.fromBits(bits[index]).toLong()
+        INT, LONG -> bits[index]
+        else -> 0L
+    }
+
+    fun getRef(index: Int): Any? = refs[index]
+
+    fun getType(index: Int): ReadableType = when (tags[index]) {
+        BOOLEAN -> ReadableType.Boolean
+        INT, LONG, DOUBLE -> ReadableType.Number
+        STRING -> ReadableType.String
+        MAP -> ReadableType.Map
+        ARRAY -> ReadableType.Array
+        else -> ReadableType.Null
+    }
+
+    /**
+     * Returns the value at [index] boxed as the type it was stored with.
+     */
+    fun valueAt(index: Int): Any? = when (tags[index]) {
+        BOOLEAN -> bits[index] != 0L
+        INT -> bits[index].toInt()
+        LONG -> bits[index]
+        DOUBLE -> Double.fromBits(bits[index])
+        NULL -> null
+        else -> refs[index]
+    }
+
+    /**
+     * Like [valueAt], with nested maps and arrays converted to [HashMap] and [ArrayList].
+     */
+    fun plainValueAt(index: Int): Any? = when (tags[index]) {
+        MAP -> (refs[index] as ReadableMap).toHashMap()
+        ARRAY -> (refs[index] as ReadableArray).toArrayList()
+        else -> valueAt(index)
+    }
+
+    private fun set(index: Int, tag: Byte, bits: Long, ref: Any?) {
+        tags[index] = tag
+        this.bits[index] = bits
+        refs[index] = ref
+    }
+
+    private fun grow() {
+        val capacity = (tags.size * 2).coerceAtLeast(DEFAULT_CAPACITY)
+        tags = tags.copyOf(capacity)
+        bits = bits.copyOf(capacity)
+        refs = refs.copyOf(capacity)
+    }
+
+    private companion object {
+        const val DEFAULT_CAPACITY = 8
+        const val NULL: Byte = 0
+        const val BOOLEAN: Byte = 1
+        const val INT: Byte = 2
+        const val LONG: Byte = 3
+        const val DOUBLE: Byte = 4
+        const val STRING: Byte = 5
+        const val MAP: Byte = 6
+        const val ARRAY: Byte = 7
+    }
+}
@@ -0,0 +1,257 @@
+package io.hyperswitch.webview.utils
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+/**
+ * Checks [WritableNativeMap] and [WritableNativeArray] against the boxed [HashMap] and
+ * [ArrayList] storage they replaced: the same values come back from every getter and from
+ * [WritableNativeMap.toHashMap], [WritableNativeMap.asMap] and [WritableNativeArray.toArrayList].
+ */
+class ArgumentsTest {
+
+    @Test
+    fun mapRoundTripsEveryValueTypeAsItsBoxedValue() {
+        val map = filledMap()
+
+        assertEquals(BOXED, map.toHashMap())
+        for ((key, value) in BOXED) {
+            assertEquals(key, value?.javaClass, map.toHashMap()[key]?.javaClass)
+        }
+    }
+
+    @Test
+    fun mapGettersMatchBoxedConversions() {
+        val map = filledMap()
+
+        for (key in BOXED.keys + "missing") {
+            val boxed = BOXED[key]
+            assertEquals(key, boxedType(boxed), map.getType(key))
+            assertEquals(key, boxed as? Boolean ?: false, map.getBoolean(key))
+            assertEquals(key, boxedDouble(boxed), map.getDouble(key), 0.0)
+            assertEquals(key, if (boxed is Number) boxed.toInt() else 0, map.getInt(key))
+            assertEquals(key, if (boxed is Number) boxed.toLong() else 0L, map.getLong(key))
+            assertEquals(key, boxed as? String, map.getString(key))
+            assertEquals(key, BOXED.containsKey(key), map.hasKey(key))
+            assertEquals(key, BOXED.containsKey(key) && boxed == null, map.isNull(key))
+            assertDynamic(key, boxed, map.getDynamic(key))
+        }
+    }
+
+    @Test
+    fun asMapEqualsTheBoxedMapAndHashesLikeIt() {
+        val map = filledMap()
+        val view = map.asMap()
+
+        assertEquals(BOXED, view)
+        assertEquals(view, BOXED)
+        assertEquals(BOXED.hashCode(), view.hashCode())
+        assertEquals(BOXED.keys, view.keys)
+        assertEquals(BOXED.size, view.size)
+        assertTrue(view.containsKey("null"))
+        assertNull(view["missing"])
+    }
+
+    @Test
+    fun nestedContainersConvertLikeTheBoxedStorage() {
+        val inner = WritableNativeMap().apply { putInt("count", 2) }
+        val list = WritableNativeArray().apply {
+            pushString("a")
+            pushMap(WritableNativeMap().apply { putBoolean("ok", true) })
+        }
+        val map = WritableNativeMap().apply {
+            putMap("inner", inner)
+            putArray("list", list)
+        }
+
+        val expected = hashMapOf<String, Any?>(
+            "inner" to hashMapOf<String, Any?>("count" to 2),
+            "list" to arrayListOf<Any?>("a", hashMapOf<String, Any?>("ok" to true))
+        )
+        assertEquals(expected, map.toHashMap())
+        assertEquals(expected, map.asMap())
+        assertSame(inner, map.getMap("inner"))
+        assertSame(list, map.getArray("list"))
+        assertEquals(ReadableType.Map, map.getType("inner"))
+        assertEquals(ReadableType.Array, map.getType("list"))
+    }
+
+    @Test
+    fun overwritingAKeyReplacesItsValueAndType() {
+        val map = WritableNativeMap()
+        map.putInt("value", 1)
+        map.putString("value", "one")
+        map.putNull("other")
+        map.putDouble("other", 2.5)
+
+        assertEquals(hashMapOf<String, Any?>("value" to "one", "other" to 2.5), map.toHashMap())
+        assertEquals(0, map.getInt("value"))
+        assertEquals(ReadableType.Number, map.getType("other"))
+        assertFalse(map.isNull("other"))
+    }
+
+    @Test
+    fun copyIsEqualAndIndependent() {
+        val map = filledMap()
+        map.putMap("inner", WritableNativeMap().apply { putLong("id", 7L) })
+
+        val copy = map.copy()
+        copy.putString("string", "changed")
+        (copy.getMap("inner") as WritableMap).putLong("id", 8L)
+
+        assertEquals("hyperswitch", map.getString("string"))
+        assertEquals(7L, map.getMap("inner")!!.getLong("id"))
+        assertNotEquals(map.toHashMap(), copy.toHashMap())
+        assertEquals(map.toHashMap().keys, copy.toHashMap().keys)
+    }
+
+    @Test
+    fun mergeKeepsSourceValues() {
+        val source = WritableNativeMap().apply {
+            putBoolean("flag", true)
+            putString("name", "card")
+            putNull("none")
+        }
+        val target = WritableNativeMap().apply { putString("name", "wallet") }
+
+        target.merge(source)
+
+        assertEquals(hashMapOf<String, Any?>("flag" to true, "name" to "card", "none" to null), target.toHashMap())
+    }
+
+    @Test
+    fun keyIteratorsVisitEveryKeyOnce() {
+        val map = filledMap()
+
+        val keys = mutableListOf<String>()
+        val iterator = map.keySetIterator()
+        while (iterator.hasNextKey()) keys.add(iterator.nextKey())
+        val entries = map.entryIterator.asSequence().map { it.key }.toList()
+
+        assertEquals(BOXED.keys, keys.toSet())
+        assertEquals(BOXED.size, keys.size)
+        assertEquals(keys, entries)
+    }
+
+    @Test
+    fun mapGrowsPastItsInitialCapacity() {
+        val map = WritableNativeMap()
+        val expected = HashMap<String, Any?>()
+        for (i in 0 until 100) {
+            map.putInt("key$i", i)
+            expected["key$i"] = i
+        }
+
+        assertEquals(expected, map.toHashMap())
+        assertEquals(99, map.getInt("key99"))
+    }
+
+    @Test
+    fun arrayRoundTripsEveryValueTypeAsItsBoxedValue() {
+        val array = filledArray()
+
+        assertEquals(BOXED_LIST, array.toArrayList())
+        assertEquals(BOXED_LIST.size, array.size())
+        for (i in BOXED_LIST.indices) {
+            assertEquals("$i", BOXED_LIST[i]?.javaClass, array.toArrayList()[i]?.javaClass)
+        }
+    }
+
+    @Test
+    fun arrayGettersMatchBoxedConversions() {
+        val array = filledArray()
+
+        for (i in -1..BOXED_LIST.size) {
+            val boxed = BOXED_LIST.getOrNull(i)
+            assertEquals("$i", boxedType(boxed), array.getType(i))
+            assertEquals("$i", boxed as? Boolean ?: false, array.getBoolean(i))
+            assertEquals("$i", boxedDouble(boxed), array.getDouble(i), 0.0)
+            assertEquals("$i", if (boxed is Number) boxed.toInt() else 0, array.getInt(i))
+            assertEquals("$i", if (boxed is Number) boxed.toLong() else 0L, array.getLong(i))
+            assertEquals("$i", boxed as? String, array.getString(i))
+            assertEquals("$i", i in BOXED_LIST.indices && boxed == null, array.isNull(i))
+            assertDynamic("$i", boxed, array.getDynamic(i))
+        }
+    }
+
+    @Test
+    fun arrayCopyIsEqualAndIndependent() {
+        val array = filledArray()
+        array.pushArray(WritableNativeArray().apply { pushInt(1) })
+
+        val copy = array.copy()
+        (copy.getArray(copy.size() - 1) as WritableNativeArray).pushInt(2)
+        copy.pushString("extra")
+
+        assertEquals(BOXED_LIST + listOf(listOf(1)), array.toArrayList())
+        assertEquals(BOXED_LIST + listOf(listOf(1, 2), "extra"), copy.toArrayList())
+    }
+
+    private fun filledMap() = WritableNativeMap().apply {
+        putBoolean("true", true)
+        putBoolean("false", false)
+        putInt("int", -42)
+        putLong("long", Long.MAX_VALUE)
+        putDouble("double", 1.5)
+        putDouble("nan", Double.NaN)
+        putDouble("negativeZero", -0.0)
+        putString("string", "hyperswitch")
+        putString("nullString", null)
+        putNull("null")
+    }
+
+    private fun filledArray() = WritableNativeArray().apply {
+        pushBoolean(true)
+        pushInt(Int.MIN_VALUE)
+        pushLong(-1L)
+        pushDouble(1e300)
+        pushString("hyperswitch")
+        pushString(null)
+        pushNull()
+    }
+
+    /**
+     * [ReadableType] the boxed storage reported for [value].
+     */
+    private fun boxedType(value: Any?): ReadableType = when (value) {
+        is Boolean -> ReadableType.Boolean
+        is Number -> ReadableType.Number
+        is String -> ReadableType.String
+        is ReadableMap -> ReadableType.Map
+        is ReadableArray -> ReadableType.Array
+        else -> ReadableType.Null
+    }
+
+    private fun boxedDouble(value: Any?): Double = if (value is Number) value.toDouble() else 0.0
+
+    private fun assertDynamic(message: String, boxed: Any?, dynamic: Dynamic) {
+        assertEquals(message, boxedType(boxed), dynamic.type)
+        assertEquals(message, boxed == null, dynamic.isNull)
+        assertEquals(message, boxed as? Boolean ?: false, dynamic.asBoolean())
+        assertEquals(message, boxedDouble(boxed), dynamic.asDouble(), 0.0)
+        assertEquals(message, if (boxed is Number) boxed.toInt() else 0, dynamic.asInt())
+        assertEquals(message, boxed as? String, dynamic.asString())
+    }
+
+    private companion object {
+        val BOXED: HashMap<String, Any?> = hashMapOf(
+            "true" to true,
+            "false" to false,
+            "int" to -42,
+            "long" to Long.MAX_VALUE,
+            "double" to 1.5,
+            "nan" to Double.NaN,
+            "negativeZero" to -0.0,
+            "string" to "hyperswitch",
+            "nullString" to null,
+            "null" to null,
+        )
+
+        val BOXED_LIST: List<Any?> = listOf(true, Int.MIN_VALUE, -1L, 1e300, "hyperswitch", null, null)
+    }
+}
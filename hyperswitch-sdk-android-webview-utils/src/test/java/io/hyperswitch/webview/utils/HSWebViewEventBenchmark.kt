@@ -0,0 +1,195 @@
+package io.hyperswitch.webview.utils
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
+import org.junit.Before
+import org.junit.Test
+import java.lang.management.ManagementFactory
+import java.util.Collections
+
+/**
+ * Bytes allocated per event for each event shape [HSWebViewClient] and [HSWebView.onMessage]
+ * emit, built on the compact [WritableNativeMap] and on a [HashMap]-backed [WritableMap] that
+ * stores values boxed, as [WritableNativeMap] did before.
+ * Events are filled like [HSWebViewClient.createWebViewEvent] plus the fields of their callback,
+ * and passed on and read the way [HSWebView.dispatchEvent] hands them to a [Callback].
+ *
+ * Run with `./gradlew :hyperswitch-sdk-android-webview-utils:testDebugUnitTest
+ * -Phyperswitch.benchmark=true --tests '*HSWebViewEventBenchmark'`.
+ */
+class HSWebViewEventBenchmark {
+
+    private var received = 0
+    private var sink: Map<String, Any?>? = null
+
+    @Before
+    fun setUp() {
+        assumeTrue(System.getProperty("hyperswitch.benchmark") == "true")
+    }
+
+    @Test
+    fun compactEventsAllocateLessThanHashMapBackedOnes() {
+        for ((shape, fields) in SHAPES) {
+            val compact = measure(fields) { WritableNativeMap() }
+            val boxed = measure(fields) { HashMapWritableMap() }
+
+            println("%s: %,d bytes/event compact, %,d bytes/event HashMap-backed".format(shape, compact, boxed))
+            assertTrue(shape, compact < boxed)
+        }
+    }
+
+    /**
+     * Builds and dispatches [EVENTS] events after [WARMUP_EVENTS] unmeasured ones.
+     *
+     * @return The bytes allocated on the test thread per event
+     */
+    private fun measure(fields: (WritableMap) -> Unit, createMap: () -> WritableMap): Long {
+        repeat(WARMUP_EVENTS) { dispatch(event(createMap(), fields)) }
+        received = 0
+
+        val before = allocatedBytes()
+        repeat(EVENTS) { dispatch(event(createMap(), fields)) }
+        val allocated = allocatedBytes() - before
+
+        assertEquals(EVENTS * sink!!.size, received)
+        return allocated / EVENTS
+    }
+
+    private fun event(map: WritableMap, fields: (WritableMap) -> Unit): WritableMap = map.apply {
+        putString("url", URL)
+        putBoolean("loading", false)
+        putString("title", TITLE)
+        putBoolean("canGoBack", true)
+        putBoolean("canGoForward", false)
+        fields(this)
+    }
+
+    private fun dispatch(event: WritableMap) {
+        val args = if (event is WritableNativeMap) {
+            Collections.unmodifiableMap(event.asMap())
+        } else {
+            event.toHashMap()
+        }
+        for (entry in args.entries) {
+            if (entry.value != null) received++
+        }
+        sink = args
+    }
+
+    private fun allocatedBytes(): Long {
+        val threads = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+        return threads.getThreadAllocatedBytes(Thread.currentThread().id)
+    }
+
+    /**
+     * [WritableMap] over a [HashMap], boxing every value on the way in.
+     */
+    private class HashMapWritableMap(private val map: HashMap<String, Any?> = HashMap()) : WritableMap {
+
+        override val entryIterator: Iterator<Map.Entry<String, Any?>>
+            get() = map.entries.iterator()
+
+        override fun copy(): WritableMap = HashMapWritableMap(HashMap(map))
+
+        override fun merge(source: ReadableMap) {
+            for ((key, value) in source.entryIterator) map[key] = value
+        }
+
+        override fun putArray(key: String, value: ReadableArray?) {
+            map[key] = value
+        }
+
+        override fun putBoolean(key: String, value: Boolean) {
+            map[key] = value
+        }
+
+        override fun putDouble(key: String, value: Double) {
+            map[key] = value
+        }
+
+        override fun putInt(key: String, value: Int) {
+            map[key] = value
+        }
+
+        override fun putLong(key: String, value: Long) {
+            map[key] = value
+        }
+
+        override fun putMap(key: String, value: ReadableMap?) {
+            map[key] = value
+        }
+
+        override fun putNull(key: String) {
+            map[key] = null
+        }
+
+        override fun putString(key: String, value: String?) {
+            map[key] = value
+        }
+
+        override fun getArray(name: String): ReadableArray? = map[name] as? ReadableArray
+
+        override fun getBoolean(name: String): Boolean = map[name] as? Boolean ?: false
+
+        override fun getDouble(name: String): Double = (map[name] as? Number)?.toDouble() ?: 0.0
+
+        override fun getDynamic(name: String): Dynamic = DynamicImpl(map[name])
+
+        override fun getInt(name: String): Int = (map[name] as? Number)?.toInt() ?: 0
+
+        override fun getLong(name: String): Long = (map[name] as? Number)?.toLong() ?: 0L
+
+        override fun getMap(name: String): ReadableMap? = map[name] as? ReadableMap
+
+        override fun getString(name: String): String? = map[name] as? String
+
+        override fun getType(name: String): ReadableType = DynamicImpl(map[name]).type
+
+        override fun hasKey(name: String): Boolean = map.containsKey(name)
+
+        override fun isNull(name: String): Boolean = map.containsKey(name) && map[name] == null
+
+        override fun keySetIterator(): ReadableMapKeySetIterator =
+            WritableNativeMapKeySetIterator(map.keys.iterator())
+
+        override fun toHashMap(): HashMap<String, Any?> {
+            val hashMap = HashMap<String, Any?>()
+            for ((key, value) in map) {
+                hashMap[key] = when (value) {
+                    is ReadableMap -> value.toHashMap()
+                    is ReadableArray -> value.toArrayList()
+                    else -> value
+                }
+            }
+            return hashMap
+        }
+    }
+
+    private companion object {
+        const val WARMUP_EVENTS = 20_000
+        const val EVENTS = 100_000
+        const val URL = "https://checkout.hyperswitch.io/"
+        const val TITLE = "Hyperswitch Checkout"
+        const val DESCRIPTION = "net::ERR_CONNECTION_REFUSED"
+        const val PAYLOAD = """{"type":"paymentStatus","status":"succeeded"}"""
+
+        /**
+         * Fields each event adds to those of [HSWebViewClient.createWebViewEvent].
+         */
+        val SHAPES: List<Pair<String, (WritableMap) -> Unit>> = listOf(
+            "loadingFinish" to { _ -> },
+            "message" to { event -> event.putString("data", PAYLOAD) },
+            "shouldStartLoadWithRequest" to { event -> event.putDouble("lockIdentifier", 7.0) },
+            "loadingError" to { event ->
+                event.putDouble("code", -6.0)
+                event.putString("description", DESCRIPTION)
+            },
+            "httpError" to { event ->
+                event.putInt("statusCode", 503)
+                event.putString("description", "Service Unavailable")
+            },
+            "renderProcessGone" to { event -> event.putBoolean("didCrash", true) },
+        )
+    }
+}
@@ -0,0 +1,109 @@
+package io.hyperswitch.webview.utils
+
+import android.os.Looper
+import android.webkit.WebView
+import androidx.test.core.app.ApplicationProvider
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import java.io.OutputStream
+import java.io.PrintStream
+import java.lang.management.ManagementFactory
+import java.util.function.Predicate
+
+/**
+ * Bytes allocated per [HSWebView.onMessage], from the bridge call to the [Callback], compared
+ * with the dispatch it replaced, which printed the event and passed on a second HashMap copy.
+ *
+ * Run with `./gradlew :hyperswitch-sdk-android-webview-utils:testDebugUnitTest
+ * -Phyperswitch.benchmark=true --tests '*HSWebViewMessageBenchmark'`.
+ */
+@RunWith(RobolectricTestRunner::class)
+class HSWebViewMessageBenchmark {
+
+    private val featureSupport = HSWebView.featureSupport
+    private var received = 0
+
+    @Before
+    fun setUp() {
+        assumeTrue(System.getProperty("hyperswitch.benchmark") == "true")
+        HSWebView.featureSupport = Predicate { false }
+    }
+
+    @After
+    fun tearDown() {
+        HSWebView.featureSupport = featureSupport
+    }
+
+    @Test
+    fun dispatchAllocatesLessThanCopyingEachEvent() {
+        val current = measure(HSWebView(ApplicationProvider.getApplicationContext()) { received += it.size })
+        val copying = measure(CopyingWebView { received += it.size })
+
+        println("onMessage: %,d bytes/message, copying dispatch: %,d bytes/message".format(current, copying))
+        assertTrue(current < copying)
+    }
+
+    /**
+     * Delivers [MESSAGES] messages after [WARMUP_MESSAGES] unmeasured ones.
+     *
+     * @return The bytes allocated on the test thread per message
+     */
+    private fun measure(webView: HSWebView): Long {
+        webView.webViewClient = HSWebViewClient()
+        deliver(webView, WARMUP_MESSAGES)
+        received = 0
+
+        val before = allocatedBytes()
+        deliver(webView, MESSAGES)
+        val allocated = allocatedBytes() - before
+
+        assertEquals(MESSAGES * EVENT_SIZE, received)
+        return allocated / MESSAGES
+    }
+
+    private fun deliver(webView: HSWebView, count: Int) {
+        val looper = shadowOf(Looper.getMainLooper())
+        for (i in 0 until count) {
+            webView.onMessage(PAYLOAD, SOURCE_URL)
+            if (i % BATCH == BATCH - 1) looper.idle()
+        }
+        looper.idle()
+    }
+
+    private fun allocatedBytes(): Long {
+        val threads = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+        return threads.getThreadAllocatedBytes(Thread.currentThread().id)
+    }
+
+    /**
+     * Dispatches events the way [HSWebView] did before events were passed on without copying.
+     */
+    private class CopyingWebView(private val onMessage: Callback) :
+        HSWebView(ApplicationProvider.getApplicationContext(), onMessage) {
+
+        override fun dispatchEvent(webView: WebView, event: ReadableMap) {
+            DISCARD.println(event.toHashMap())
+            onMessage(event.toHashMap())
+        }
+    }
+
+    private companion object {
+        const val WARMUP_MESSAGES = 20_000
+        const val MESSAGES = 100_000
+        const val BATCH = 100
+        const val SOURCE_URL = "https://checkout.hyperswitch.io/"
+        const val PAYLOAD = """{"type":"paymentStatus","status":"succeeded"}"""
+
+        // url, loading, title, canGoBack, canGoForward and data
+        const val EVENT_SIZE = 6
+
+        val DISCARD = PrintStream(OutputStream.nullOutputStream())
+    }
+}
@@ -0,0 +1,155 @@
+package io.hyperswitch.webview.utils
+
+import android.content.Context
+import android.os.Handler
+import android.webkit.ValueCallback
+import android.webkit.WebMessagePort
+import androidx.test.core.app.ApplicationProvider
+import androidx.webkit.WebMessageCompat
+import androidx.webkit.WebMessagePortCompat
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.lang.reflect.InvocationHandler
+import java.util.function.Predicate
+
+@RunWith(RobolectricTestRunner::class)
+class HSWebViewMessageChannelTest {
+
+    private val featureSupport = HSWebView.featureSupport
+    private lateinit var webView: ChannelWebView
+    private lateinit var client: HSWebViewClient
+
+    @Before
+    fun setUp() {
+        HSWebView.featureSupport = Predicate { false }
+        webView = ChannelWebView(ApplicationProvider.getApplicationContext())
+        webView.settings.javaScriptEnabled = true
+        client = HSWebViewClient()
+        webView.webViewClient = client
+    }
+
+    @After
+    fun tearDown() {
+        HSWebView.featureSupport = featureSupport
+    }
+
+    @Test
+    fun messagesAreEvaluatedAsScriptsWithoutMessageChannelSupport() {
+        HSWebView.featureSupport = Predicate { false }
+        client.onPageFinished(webView, PAGE_URL)
+
+        webView.postMessageToPage("hello")
+
+        assertTrue(webView.ports.isEmpty())
+        assertTrue(webView.scripts.last().contains("\"data\":\"hello\""))
+    }
+
+    @Test
+    fun messagesGoThroughThePortOnceThePageHasLoaded() {
+        HSWebView.featureSupport = Predicate { true }
+        webView.postMessageToPage("early")
+        assertTrue(webView.scripts.last().contains("\"data\":\"early\""))
+
+        client.onPageFinished(webView, PAGE_URL)
+        val scriptCount = webView.scripts.size
+        webView.postMessageToPage("hello")
+
+        assertEquals(1, webView.ports.size)
+        assertEquals(listOf("hello"), webView.ports.single().posted)
+        assertEquals(scriptCount, webView.scripts.size)
+    }
+
+    @Test
+    fun portIsClosedWhenTheNextPageStarts() {
+        HSWebView.featureSupport = Predicate { true }
+        client.onPageFinished(webView, PAGE_URL)
+
+        client.onPageStarted(webView, NEXT_PAGE_URL, null)
+        webView.postMessageToPage("hello")
+
+        assertTrue(webView.ports.single().closed)
+        assertTrue(webView.ports.single().posted.isEmpty())
+        assertTrue(webView.scripts.last().contains("\"data\":\"hello\""))
+    }
+
+    @Test
+    fun portIsClosedWhenTheViewIsDestroyed() {
+        HSWebView.featureSupport = Predicate { true }
+        client.onPageFinished(webView, PAGE_URL)
+
+        webView.destroy()
+
+        assertTrue(webView.ports.single().closed)
+    }
+
+    @Test
+    fun channelRequestedBeforeANavigationIsNotOpened() {
+        HSWebView.featureSupport = Predicate { true }
+        webView.deferScriptResults = true
+        client.onPageFinished(webView, PAGE_URL)
+
+        client.onPageStarted(webView, NEXT_PAGE_URL, null)
+        webView.completeScripts()
+
+        assertTrue(webView.ports.isEmpty())
+    }
+
+    /**
+     * Records evaluated scripts instead of running them, and opens [FakePort]s as message channels.
+     */
+    private class ChannelWebView(context: Context) : HSWebView(context, { }) {
+        val scripts = mutableListOf<String>()
+        val ports = mutableListOf<FakePort>()
+        var deferScriptResults = false
+        private val pendingResults = mutableListOf<ValueCallback<String>>()
+
+        override fun evaluateJavascript(script: String, resultCallback: ValueCallback<String>?) {
+            scripts.add(script)
+            if (resultCallback == null) return
+            if (deferScriptResults) {
+                pendingResults.add(resultCallback)
+            } else {
+                resultCallback.onReceiveValue("null")
+            }
+        }
+
+        fun completeScripts() {
+            pendingResults.forEach { it.onReceiveValue("null") }
+            pendingResults.clear()
+        }
+
+        override fun createMessagePort(): WebMessagePortCompat = FakePort().also { ports.add(it) }
+    }
+
+    private class FakePort : WebMessagePortCompat() {
+        val posted = mutableListOf<String?>()
+        var closed = false
+
+        override fun postMessage(message: WebMessageCompat) {
+            check(!closed)
+            posted.add(message.data)
+        }
+
+        override fun close() {
+            closed = true
+        }
+
+        override fun setWebMessageCallback(callback: WebMessageCallbackCompat) {}
+
+        override fun setWebMessageCallback(handler: Handler?, callback: WebMessageCallbackCompat) {}
+
+        override fun getFrameworkPort(): WebMessagePort = throw UnsupportedOperationException()
+
+        override fun getInvocationHandler(): InvocationHandler = throw UnsupportedOperationException()
+    }
+
+    private companion object {
+        const val PAGE_URL = "https://checkout.hyperswitch.io/"
+        const val NEXT_PAGE_URL = "https://checkout.hyperswitch.io/next"
+    }
+}
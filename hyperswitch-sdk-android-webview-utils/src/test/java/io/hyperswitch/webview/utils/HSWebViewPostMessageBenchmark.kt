@@ -0,0 +1,149 @@
+package io.hyperswitch.webview.utils
+
+import android.content.Context
+import android.os.Handler
+import android.os.Looper
+import android.webkit.ValueCallback
+import android.webkit.WebMessagePort
+import androidx.test.core.app.ApplicationProvider
+import androidx.webkit.WebMessageCompat
+import androidx.webkit.WebMessagePortCompat
+import org.json.JSONObject
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import java.lang.reflect.InvocationHandler
+import java.util.function.Predicate
+
+/**
+ * Round-trip latency of [HSWebView.postMessageToPage] for 1 KB and 100 KB payloads, over the
+ * page's message channel and through the evaluateJavascript path it replaced, from the call to
+ * the [Callback] receiving the page's echo through [HSWebView.onMessage].
+ * There is no renderer in unit tests, so [EchoWebView] stands in for the page: a port message
+ * arrives as is, while a script has its embedded JSON literal parsed back out, in place of the
+ * page parsing the script. IPC and script compilation are not included.
+ *
+ * Run with `./gradlew :hyperswitch-sdk-android-webview-utils:testDebugUnitTest
+ * -Phyperswitch.benchmark=true --tests '*HSWebViewPostMessageBenchmark'`.
+ */
+@RunWith(RobolectricTestRunner::class)
+class HSWebViewPostMessageBenchmark {
+
+    private val featureSupport = HSWebView.featureSupport
+    private var received: Any? = null
+
+    @Before
+    fun setUp() {
+        assumeTrue(System.getProperty("hyperswitch.benchmark") == "true")
+    }
+
+    @After
+    fun tearDown() {
+        HSWebView.featureSupport = featureSupport
+    }
+
+    @Test
+    fun portRoundTripIsFasterForLargePayloads() {
+        for (size in PAYLOAD_SIZES) {
+            val payload = payload(size)
+            val port = measure(payload, messageChannel = true)
+            val script = measure(payload, messageChannel = false)
+
+            println(
+                "%,d B payload: %,d ns/round trip over the port, %,d ns/round trip with evaluateJavascript"
+                    .format(size, port, script)
+            )
+            if (size >= LARGE_PAYLOAD) assertTrue(port < script)
+        }
+    }
+
+    /**
+     * Makes [ROUND_TRIPS] round trips after [WARMUP_ROUND_TRIPS] unmeasured ones.
+     *
+     * @return The mean nanoseconds per round trip
+     */
+    private fun measure(payload: String, messageChannel: Boolean): Long {
+        HSWebView.featureSupport = Predicate { messageChannel }
+        val webView = EchoWebView(ApplicationProvider.getApplicationContext()) { received = it["data"] }
+        webView.settings.javaScriptEnabled = true
+        val client = HSWebViewClient()
+        webView.webViewClient = client
+        client.onPageFinished(webView, PAGE_URL)
+        assertEquals(messageChannel, webView.portOpened)
+
+        repeat(WARMUP_ROUND_TRIPS) { roundTrip(webView, payload) }
+        val start = System.nanoTime()
+        repeat(ROUND_TRIPS) { roundTrip(webView, payload) }
+        return (System.nanoTime() - start) / ROUND_TRIPS
+    }
+
+    private fun roundTrip(webView: HSWebView, payload: String) {
+        received = null
+        webView.postMessageToPage(payload)
+        shadowOf(Looper.getMainLooper()).idle()
+        check((received as String).length == payload.length)
+    }
+
+    private fun payload(size: Int): String {
+        val prefix = """{"type":"paymentMethods","list":""""
+        return prefix + "x".repeat(size - prefix.length - 2) + "\"}"
+    }
+
+    /**
+     * Echoes every message posted to the page back through [HSWebView.onMessage].
+     */
+    private class EchoWebView(context: Context, onMessage: Callback) : HSWebView(context, onMessage) {
+        var portOpened = false
+
+        override fun evaluateJavascript(script: String, resultCallback: ValueCallback<String>?) {
+            val start = script.indexOf(DATA_PREFIX)
+            if (start < 0) {
+                resultCallback?.onReceiveValue("null")
+                return
+            }
+            val literal = script.substring(start + DATA_PREFIX.length, script.indexOf(DATA_SUFFIX, start))
+            onMessage(JSONObject(literal).getString("data"), PAGE_URL)
+        }
+
+        override fun createMessagePort(): WebMessagePortCompat {
+            portOpened = true
+            return EchoPort(this)
+        }
+    }
+
+    private class EchoPort(private val webView: HSWebView) : WebMessagePortCompat() {
+
+        override fun postMessage(message: WebMessageCompat) {
+            webView.onMessage(message.data, PAGE_URL)
+        }
+
+        override fun close() {}
+
+        override fun setWebMessageCallback(callback: WebMessageCallbackCompat) {}
+
+        override fun setWebMessageCallback(handler: Handler?, callback: WebMessageCallbackCompat) {}
+
+        override fun getFrameworkPort(): WebMessagePort = throw UnsupportedOperationException()
+
+        override fun getInvocationHandler(): InvocationHandler = throw UnsupportedOperationException()
+    }
+
+    private companion object {
+        const val WARMUP_ROUND_TRIPS = 500
+        const val ROUND_TRIPS = 2_000
+        const val LARGE_PAYLOAD = 100 * 1024
+        const val PAGE_URL = "https://checkout.hyperswitch.io/"
+
+        // The script postMessageToPage builds assigns the event init dictionary to `data`
+        const val DATA_PREFIX = "var data = "
+        const val DATA_SUFFIX = ";try {"
+
+        val PAYLOAD_SIZES = intArrayOf(1024, LARGE_PAYLOAD)
+    }
+}